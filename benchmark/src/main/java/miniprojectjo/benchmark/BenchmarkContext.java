@@ -0,0 +1,50 @@
+package miniprojectjo.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import miniprojectjo.PointApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// 벤치마크용 애플리케이션 컨텍스트: 트라이얼마다 새 인메모리 H2(spring.datasource.url 을 넘기면 그 DB), 테스트 바인더(Kafka 없음), SQL/디버그 로그 끔.
+// 아웃박스 릴레이는 꺼서 측정 중에 백그라운드 발행이 끼어들지 않게 한다.
+final class BenchmarkContext {
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "--spring.jpa.properties.hibernate.show_sql=false",
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.miniprojectjo=WARN",
+            "--logging.level.org.hibernate.type=WARN",
+            "--logging.level.org.springframework.cloud=WARN",
+            "--logging.level.org.springframework.core.env=WARN",
+            "--point.outbox.relay.enabled=false",
+            // 테스트 바인더는 폴링 바인딩(DLQ 재주입)을 지원하지 않는다
+            "--point.dlq.replay.enabled=false",
+            // shade 된 jar 에는 Spring Boot 버전 정보(MANIFEST)가 없어 호환성 검사가 실패한다
+            "--spring.cloud.compatibility-verifier.enabled=false"
+        ));
+        for (String property : properties) {
+            if (property.startsWith("spring.datasource.url=")) {
+                args.remove(0);
+            }
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PointApplication.class)
+            .web(webApplicationType)
+            .run(args.toArray(new String[0]));
+        PointApplication.applicationContext = context;
+        return context;
+    }
+}
@@ -0,0 +1,76 @@
+package miniprojectjo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import miniprojectjo.domain.*;
+import miniprojectjo.infra.AbstractEvent;
+import miniprojectjo.infra.EventCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+// EventCodec 포맷별 인코딩/디코딩 비용과 aggregate → 이벤트 속성 복사 비용.
+// 포맷별 페이로드 크기는 encode 결과의 보조 지표(payloadBytes, 바이트)로 함께 나온다.
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventCodecBenchmark {
+
+    @Param({ "PointBought", "PointDecreased" })
+    public String eventType;
+
+    @Param({ "json", "binary" })
+    public String format;
+
+    private AbstractEvent event;
+    private Class<? extends AbstractEvent> eventClass;
+    private MimeType contentType;
+    private byte[] encoded;
+    private Point point;
+
+    @Setup(Level.Trial)
+    public void encodeSample() {
+        event = EventSerializationBenchmark.sampleEvent(eventType);
+        eventClass = event.getClass();
+        contentType = "binary".equals(format) ? EventCodec.BINARY : MimeTypeUtils.APPLICATION_JSON;
+        encoded = EventCodec.encode(event, contentType);
+        point = EventSerializationBenchmark.samplePoint();
+    }
+
+    @Benchmark
+    public byte[] encode(Payload payload) {
+        byte[] bytes = EventCodec.encode(event, contentType);
+        payload.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return EventCodec.decode(encoded, contentType, eventClass);
+    }
+
+    // 이전 방식과 비교: 매번 BeanUtils 로 복사
+    @Benchmark
+    public PointDecreased copyWithBeanUtils() {
+        PointDecreased pointDecreased = new PointDecreased();
+        BeanUtils.copyProperties(point, pointDecreased);
+        return pointDecreased;
+    }
+
+    @Benchmark
+    public PointDecreased copyWithEventCodec() {
+        PointDecreased pointDecreased = new PointDecreased();
+        EventCodec.copyProperties(point, pointDecreased);
+        return pointDecreased;
+    }
+
+    // 인코딩한 페이로드 크기 (EVENTS: 합산하지 않고 마지막 값 그대로 보고)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long payloadBytes;
+    }
+}
@@ -0,0 +1,84 @@
+package miniprojectjo.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import miniprojectjo.domain.*;
+import miniprojectjo.infra.AbstractEvent;
+import miniprojectjo.infra.OutboxEvent;
+import org.openjdk.jmh.annotations.*;
+
+// 이벤트 클래스별 AbstractEvent.toJson 과 아웃박스 레코드(payload) 생성 비용
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventSerializationBenchmark {
+
+    @Param({ "PointBought", "PointDecreased", "OutOfPoint", "PointRegistered", "SubscriptionApplied", "UserRegistered" })
+    public String eventType;
+
+    private AbstractEvent event;
+
+    @Setup(Level.Trial)
+    public void createEvent() {
+        event = sampleEvent(eventType);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return event.toJson();
+    }
+
+    @Benchmark
+    public OutboxEvent outboxPayload() {
+        return new OutboxEvent(event);
+    }
+
+    static Point samplePoint() {
+        Point point = new Point();
+        point.setId("0b6f3c1e-5d8a-4f7e-9a41-3f0c2d7e8b90");
+        point.setPoint(12345);
+        point.setIsSubscribe(true);
+        point.setUserId(new UserId("user-0001"));
+        point.setSubscriptionId(new SubscriptionId("subscription-42"));
+        return point;
+    }
+
+    static AbstractEvent sampleEvent(String eventType) {
+        switch (eventType) {
+            case "PointBought":
+                PointBought pointBought = new PointBought();
+                pointBought.setId("6a1d2b4c-8e3f-4a5b-9c7d-0e1f2a3b4c5d");
+                pointBought.setPoint(500);
+                pointBought.setUserId(new UserId("user-0001"));
+                return pointBought;
+            case "PointDecreased":
+                return new PointDecreased(samplePoint());
+            case "OutOfPoint":
+                return new OutOfPoint(samplePoint());
+            case "PointRegistered":
+                return new PointRegistered(samplePoint());
+            case "SubscriptionApplied":
+                SubscriptionApplied subscriptionApplied = new SubscriptionApplied();
+                subscriptionApplied.setId(1001L);
+                subscriptionApplied.setBookId("book-77");
+                subscriptionApplied.setUserId(new UserId("user-0001"));
+                subscriptionApplied.setIsSubscription(true);
+                subscriptionApplied.setStartSubscription(new Date(1700000000000L));
+                subscriptionApplied.setEndSubscription(new Date(1702592000000L));
+                subscriptionApplied.setPdfPath("/books/book-77.pdf");
+                subscriptionApplied.setCost(300);
+                return subscriptionApplied;
+            case "UserRegistered":
+                UserRegistered userRegistered = new UserRegistered();
+                userRegistered.setId("user-0001");
+                userRegistered.setEmail("user-0001@example.com");
+                userRegistered.setUserName("user-0001");
+                return userRegistered;
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + eventType);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package miniprojectjo.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import miniprojectjo.domain.*;
+import miniprojectjo.infra.HotAccounts;
+import miniprojectjo.infra.PointMutationExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 한 사용자(hot)에게 변경이 몰릴 때 다른 사용자(cold)의 처리량.
+// hot 스레드 16개가 같은 행을, cold 스레드 2개가 각자 다른 행을 증가시킨다 (Point.purchasePoint, 트랜잭션 하나씩).
+// - direct : 호출 스레드에서 바로 트랜잭션 실행. hot 스레드들이 행 잠금을 기다리며 커넥션 풀(기본 10개)을 붙잡아 cold 도 밀린다.
+// - striped: PointMutationExecutor 를 거쳐 userId 스트라이프에서 실행. hot 변경은 한 스트라이프에서 차례로 실행되어 커넥션 1개만 쓴다.
+// - sharded: hot 사용자를 hot 계정(HotAccounts, 분할 행 8개)으로 승격해 두고, 충전을 userId#분할 키로 여러 스트라이프에 나눠 실행한다.
+// 결과에서 contended:cold 의 처리량(direct vs striped)과 contended:hot 의 처리량(striped vs sharded)을 비교한다.
+// 자동 승격은 꺼 두고 (point.hot.enabled=false) sharded 에서만 직접 승격한다.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotAccountBenchmark {
+
+    private static final UserId HOT_USER = new UserId("hot-user");
+    private static final int COLD_USERS = 64;
+
+    @Param({ "direct", "striped", "sharded" })
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private PointMutationExecutor pointMutationExecutor;
+    private HotAccounts hotAccounts;
+    private final AtomicInteger coldSequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("point.hot.enabled=false");
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        pointMutationExecutor = context.getBean(PointMutationExecutor.class);
+        hotAccounts = context.getBean(HotAccounts.class);
+
+        savePoint(HOT_USER);
+        for (int i = 0; i < COLD_USERS; i++) {
+            savePoint(coldUser(i));
+        }
+        if ("sharded".equals(mode)) {
+            hotAccounts.promote(HOT_USER);
+        }
+    }
+
+    // 쌓인 원장을 비운다
+    @Setup(Level.Iteration)
+    public void clearLedger() {
+        jdbcTemplate.update("delete from point_ledger_table");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ColdUser {
+
+        UserId userId;
+
+        @Setup(Level.Trial)
+        public void pick(HotAccountBenchmark benchmark) {
+            userId = coldUser(benchmark.coldSequence.getAndIncrement() % COLD_USERS);
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(16)
+    public void hot() {
+        purchase(HOT_USER);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void cold(ColdUser coldUser) {
+        purchase(coldUser.userId);
+    }
+
+    private void purchase(UserId userId) {
+        PointBought pointBought = new PointBought();
+        pointBought.setId(UUID.randomUUID().toString());
+        pointBought.setUserId(userId);
+        pointBought.setPoint(1);
+        if (!"direct".equals(mode)) {
+            pointMutationExecutor.callBlocking(hotAccounts.mutationKey(userId.getValue()), () -> transactionTemplate.execute(status -> {
+                Point.purchasePoint(pointBought);
+                return null;
+            }));
+        } else {
+            transactionTemplate.executeWithoutResult(status -> Point.purchasePoint(pointBought));
+        }
+    }
+
+    private static UserId coldUser(int index) {
+        return new UserId("cold-user-" + index);
+    }
+
+    private static void savePoint(UserId userId) {
+        Point point = new Point();
+        point.setId(UUID.randomUUID().toString());
+        point.setUserId(userId);
+        point.setPoint(0);
+        point.setIsSubscribe(false);
+        Point.repository().save(point);
+    }
+}
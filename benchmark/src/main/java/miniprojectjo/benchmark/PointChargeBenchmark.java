@@ -0,0 +1,28 @@
+package miniprojectjo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import miniprojectjo.domain.Point;
+import org.openjdk.jmh.annotations.*;
+
+// Point.chargePoint (순수 도메인 연산, DB 없음)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PointChargeBenchmark {
+
+    private Point point;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        point = new Point();
+    }
+
+    @Benchmark
+    public Point chargePoint() {
+        point.chargePoint(10);
+        return point;
+    }
+}
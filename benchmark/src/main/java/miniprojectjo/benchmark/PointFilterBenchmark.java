@@ -0,0 +1,160 @@
+package miniprojectjo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import miniprojectjo.domain.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Point_table 100만 건에서 조건 검색 비교.
+// - legacy*       : 이전 PointRepository.getPoint 의 JPQL (모든 조건을 ':x is null or ...' 로 묶음, point/isSubscribe 는 항상 조건)
+// - specification*: PointRepository.search (값이 있는 조건만 SQL 에 넣음)
+// - byUserId      : userId 한 건 (legacy 는 전체 스캔, specification 은 ux_point_user_id)
+// - bySubscription: subscriptionId 100건 (legacy 는 전체 스캔, specification 은 ix_point_subscription_id)
+// - deepPage      : 50만 번째 근처의 100건 (offset 페이지 vs userId 키셋)
+// 1000명 중 1명은 hot 계정(분할 행 8개)이다. specification 의 잔액 조건은 후보 행마다 분할 행 합계 부분 질의를 실행한다.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointFilterBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SUBSCRIPTIONS = 10_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int DEEP_PAGE = ROWS / 2 / PAGE_SIZE;
+    private static final int HOT_EVERY = 1000;
+    private static final int SHARDS = 8;
+
+    private static final String LEGACY_QUERY =
+        "select point " +
+        "from Point point " +
+        "where(:id is null or point.id = :id) and (:point is null or point.point = :point) and (point.isSubscribe = :isSubscribe) and (:userId is null or point.userId = :userId) and (:subscriptionId is null or point.subscriptionId = :subscriptionId)";
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private PointRepository pointRepository;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // 측정 중에 조회 프로젝션 재동기화(전체 스캔)가 끼어들지 않게 한다
+        context = BenchmarkContext.start("point.projection.resync-interval-ms=3600000");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        pointRepository = context.getBean(PointRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[] { "id-" + i, point(i), isSubscribe(i), userId(i), subscriptionId(i % SUBSCRIPTIONS) });
+            if (rows.size() == 10_000) {
+                insert(jdbcTemplate, rows);
+                rows.clear();
+            }
+        }
+        insert(jdbcTemplate, rows);
+        rows.clear();
+        for (int i = 0; i < ROWS; i += HOT_EVERY) {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                rows.add(new Object[] { userId(i) + "#" + shard, userId(i), shard });
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into point_shard_table (id, user_id_value, shard, point) values (?, ?, ?, 0)", rows);
+        jdbcTemplate.update("update point_table set shards = ? where mod(cast(substring(user_id_value, 6) as int), ?) = 0", SHARDS, HOT_EVERY);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Point> legacyByUserId() {
+        int row = ThreadLocalRandom.current().nextInt(ROWS);
+        return legacy(point(row), isSubscribe(row), new UserId(userId(row)), null, 1);
+    }
+
+    @Benchmark
+    public List<Point> specificationByUserId() {
+        int row = ThreadLocalRandom.current().nextInt(ROWS);
+        GetPointQuery query = new GetPointQuery();
+        query.setUserId(new UserId(userId(row)));
+        return pointRepository.search(query, null, 1);
+    }
+
+    // legacy 는 point/isSubscribe 를 뺄 수 없으므로 둘 다 같은 조건을 준다
+    @Benchmark
+    public List<Point> legacyBySubscription() {
+        int row = ThreadLocalRandom.current().nextInt(SUBSCRIPTIONS);
+        return legacy(point(row), isSubscribe(row), null, new SubscriptionId(subscriptionId(row)), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Point> specificationBySubscription() {
+        int row = ThreadLocalRandom.current().nextInt(SUBSCRIPTIONS);
+        GetPointQuery query = new GetPointQuery();
+        query.setPoint(point(row));
+        query.setIsSubscribe(isSubscribe(row));
+        query.setSubscriptionId(new SubscriptionId(subscriptionId(row)));
+        return pointRepository.search(query, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Point> offsetDeepPage() {
+        return pointRepository.findAll(PageRequest.of(DEEP_PAGE, PAGE_SIZE, Sort.by("userId.value"))).getContent();
+    }
+
+    @Benchmark
+    public List<Point> keysetDeepPage() {
+        return pointRepository.search(new GetPointQuery(), userId(DEEP_PAGE * PAGE_SIZE - 1), PAGE_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Point> legacy(int point, boolean isSubscribe, UserId userId, SubscriptionId subscriptionId, int limit) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(LEGACY_QUERY)
+                .setParameter("id", null)
+                .setParameter("point", point)
+                .setParameter("isSubscribe", isSubscribe)
+                .setParameter("userId", userId)
+                .setParameter("subscriptionId", subscriptionId)
+                .setMaxResults(limit)
+                .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+            "insert into point_table (id, point, is_subscribe, user_id_value, subscription_id_value) values (?, ?, ?, ?, ?)",
+            rows
+        );
+    }
+
+    private static String userId(int row) {
+        return String.format("user-%07d", row);
+    }
+
+    private static String subscriptionId(int subscription) {
+        return "sub-" + subscription;
+    }
+
+    private static int point(int row) {
+        return row % 1000;
+    }
+
+    private static boolean isSubscribe(int row) {
+        return row % 2 == 0;
+    }
+}
@@ -0,0 +1,72 @@
+package miniprojectjo.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import miniprojectjo.domain.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 이벤트 처리 흐름(조건부 UPDATE + 원장 + 아웃박스)을 인메모리 H2 에 대해 측정
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointFlowBenchmark {
+
+    private static final UserId USER_ID = new UserId("benchmark-user");
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Point point = new Point();
+        point.setId(UUID.randomUUID().toString());
+        point.setUserId(USER_ID);
+        point.setIsSubscribe(false);
+        Point.repository().save(point);
+    }
+
+    // 차감이 OutOfPoint 로 바뀌지 않도록 잔액을 채우고, 쌓인 원장/아웃박스를 비운다
+    @Setup(Level.Iteration)
+    public void resetBalance() {
+        jdbcTemplate.update("update point_table set point = ? where user_id_value = ?", Integer.MAX_VALUE / 2, USER_ID.getValue());
+        jdbcTemplate.update("delete from point_ledger_table");
+        jdbcTemplate.update("delete from outbox_table");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void decreasePoint() {
+        SubscriptionApplied subscriptionApplied = new SubscriptionApplied();
+        subscriptionApplied.setId(sequence.incrementAndGet());
+        subscriptionApplied.setUserId(USER_ID);
+        subscriptionApplied.setCost(1);
+        transactionTemplate.executeWithoutResult(status -> Point.decreasePoint(subscriptionApplied));
+    }
+
+    @Benchmark
+    public void purchasePoint() {
+        PointBought pointBought = new PointBought();
+        pointBought.setId(UUID.randomUUID().toString());
+        pointBought.setUserId(USER_ID);
+        pointBought.setPoint(1);
+        transactionTemplate.executeWithoutResult(status -> Point.purchasePoint(pointBought));
+    }
+}
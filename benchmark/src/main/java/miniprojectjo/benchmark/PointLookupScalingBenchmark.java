@@ -0,0 +1,77 @@
+package miniprojectjo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.UserId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// PointRepository.findByUserId 지연이 Point_table 크기(1만 ~ 1000만 건)와 관계없이 평평한지 본다 (ux_point_user_id).
+// 1000만 건은 힙에 들어가지 않으므로 파일 H2(임시 디렉터리, 트라이얼 끝에 지움)에 채운다.
+// 페이지 캐시(CACHE_SIZE, KB)는 운영 DB 의 버퍼 풀처럼 인덱스가 들어갈 만큼 잡는다 (기본 16MB 면 1000만 건에서 파일 읽기를 재게 된다).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PointLookupScalingBenchmark {
+
+    private static final int CHUNK = 1_000_000;
+
+    @Param({ "10000", "100000", "1000000", "10000000" })
+    public int rows;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private PointRepository pointRepository;
+
+    @Setup(Level.Trial)
+    public void startContext() throws IOException {
+        directory = Files.createTempDirectory("point-lookup");
+        context = BenchmarkContext.start(
+            "spring.datasource.url=jdbc:h2:file:" + directory.resolve("db") + ";DB_CLOSE_DELAY=-1;CACHE_SIZE=1048576",
+            // 측정 중에 조회 프로젝션 재동기화(전체 스캔)가 끼어들지 않게 한다
+            "point.projection.resync-interval-ms=3600000"
+        );
+        pointRepository = context.getBean(PointRepository.class);
+
+        // userId 는 user-00000000 형식 (행 번호를 8자리로). 한 트랜잭션이 너무 커지지 않게 100만 건씩 넣는다
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < rows; from += CHUNK) {
+            jdbcTemplate.update(
+                "insert into point_table (id, point, is_subscribe, user_id_value) " +
+                "select 'id-' || x, mod(x, 1000), false, 'user-' || lpad(x, 8, '0') from system_range(?, ?)",
+                from,
+                Math.min(rows, from + CHUNK) - 1
+            );
+        }
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Optional<Point> findByUserId() {
+        return pointRepository.findByUserId(new UserId(userId(ThreadLocalRandom.current().nextInt(rows))));
+    }
+
+    private static String userId(int row) {
+        return String.format("user-%08d", row);
+    }
+}
@@ -0,0 +1,103 @@
+package miniprojectjo.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import miniprojectjo.infra.PointReconciliation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 이벤트 로그 점검(PointReconciliation, correct=false) 한 번에 걸리는 시간. 사용자 100만 / 1000만 명.
+// Point_table 은 파일 H2(임시 디렉터리, 트라이얼 끝에 지움)에 채우고, 로그는 사용자마다 PointRegistered 1건 + PointBought 1건
+// (가입 이벤트를 모두 쓴 뒤 충전 이벤트를 쓰므로 한 사용자의 이벤트가 서로 다른 구간에 나뉜다). 1000명 중 1명은 충전 이벤트가 빠져 불일치로 나온다.
+// 점검은 API 와 같은 경로(start → lastReport)로 돌리고 끝날 때까지 기다린다.
+// 1000만 명이면 합친 사용자 맵만 1GB 남짓이고 합치는 동안 2배 가까이 잡으므로 힙을 4GB 로 준다 (3GB 면 GC 에 시간을 다 쓴다).
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PointReconciliationBenchmark {
+
+    private static final int CHUNK = 1_000_000;
+    private static final String FILE = "events.ndjson";
+
+    @Param({ "1000000", "10000000" })
+    public int users;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private PointReconciliation pointReconciliation;
+
+    @Setup(Level.Trial)
+    public void startContext() throws IOException {
+        directory = Files.createTempDirectory("point-reconcile");
+        context = BenchmarkContext.start(
+            "spring.datasource.url=jdbc:h2:file:" + directory.resolve("db") + ";DB_CLOSE_DELAY=-1;CACHE_SIZE=262144",
+            "point.projection.resync-interval-ms=3600000",
+            "point.reconcile.dir=" + directory
+        );
+        pointReconciliation = context.getBean(PointReconciliation.class);
+
+        // userId 는 user-00000000 형식, 잔액은 행 번호 % 1000
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < users; from += CHUNK) {
+            jdbcTemplate.update(
+                "insert into point_table (id, point, is_subscribe, user_id_value) " +
+                "select 'id-' || x, mod(x, 1000), false, 'user-' || lpad(x, 8, '0') from system_range(?, ?)",
+                from,
+                Math.min(users, from + CHUNK) - 1
+            );
+        }
+        jdbcTemplate.execute("analyze");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(FILE))) {
+            for (int row = 0; row < users; row++) {
+                writer.write("{\"eventType\":\"PointRegistered\",\"id\":\"r-" + row + "\",\"subscriberInfo\":\"" + userId(row) +
+                    "\",\"pointAmount\":" + (row % 1000 / 2) + ",\"hasSubscription\":false,\"timestamp\":1}\n");
+            }
+            for (int row = 0; row < users; row++) {
+                if (row % 1000 == 999) {
+                    continue;
+                }
+                writer.write("{\"eventType\":\"PointBought\",\"id\":\"b-" + row + "\",\"userId\":{\"value\":\"" + userId(row) +
+                    "\"},\"point\":" + (row % 1000 - row % 1000 / 2) + ",\"timestamp\":1}\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public PointReconciliation.Report reconcile() throws InterruptedException {
+        if (!pointReconciliation.start(FILE, false)) {
+            throw new IllegalStateException("이전 점검이 아직 돌고 있습니다");
+        }
+        while (pointReconciliation.isRunning()) {
+            Thread.sleep(50);
+        }
+        PointReconciliation.Report report = pointReconciliation.lastReport().orElseThrow(IllegalStateException::new);
+        if (report.getError() != null || report.getDbUsers() != users || report.getDrifted() != users / 1000) {
+            throw new IllegalStateException("점검 결과가 예상과 다릅니다: error=" + report.getError() +
+                ", dbUsers=" + report.getDbUsers() + ", drifted=" + report.getDrifted());
+        }
+        return report;
+    }
+
+    private static String userId(int row) {
+        return String.format("user-%08d", row);
+    }
+}
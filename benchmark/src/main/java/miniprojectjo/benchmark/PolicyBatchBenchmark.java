@@ -0,0 +1,85 @@
+package miniprojectjo.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import miniprojectjo.domain.*;
+import miniprojectjo.infra.PolicyBatchHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+// 배치 소비(PolicyBatchHandler) 의 이벤트당 비용. PolicyHandlerDispatchBenchmark 의 건별 처리와 비교한다.
+// 한 배치는 BATCH_SIZE 건의 PointBought 이며 사용자 USERS 명에 고르게 분산된다.
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyBatchBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({ "1", "50", "500" })
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private PolicyBatchHandler handler;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("point.batch.enabled=true");
+        handler = context.getBean(PolicyBatchHandler.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        for (int i = 0; i < users; i++) {
+            Point point = new Point();
+            point.setId(UUID.randomUUID().toString());
+            point.setUserId(new UserId("benchmark-user-" + i));
+            point.setIsSubscribe(false);
+            Point.repository().save(point);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearLedger() {
+        jdbcTemplate.update("delete from point_ledger_table");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void wheneverBatch() {
+        handler.wheneverBatch(batch());
+    }
+
+    private Message<List<byte[]>> batch() {
+        List<byte[]> payloads = new ArrayList<>(BATCH_SIZE);
+        List<Map<String, Object>> headers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long id = sequence.incrementAndGet();
+            String json = "{\"id\":\"" + id + "\",\"point\":1,\"userId\":{\"value\":\"benchmark-user-" + (id % users) + "\"}}";
+            payloads.add(json.getBytes(StandardCharsets.UTF_8));
+            headers.add(Collections.singletonMap("type", "PointBought"));
+        }
+        return MessageBuilder
+            .withPayload(payloads)
+            .setHeader(KafkaHeaders.BATCH_CONVERTED_HEADERS, headers)
+            .build();
+    }
+}
@@ -0,0 +1,94 @@
+package miniprojectjo.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import miniprojectjo.config.kafka.KafkaProcessor;
+import miniprojectjo.domain.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+// event-in 채널에 메시지를 넣어 라우팅 + 역직렬화 + PolicyHandler 처리까지 측정 (테스트 바인더)
+// OutOfPoint(로그만 남김)와 Unknown(건너뜀)은 DB 작업이 없어 메시지당 라우팅/역직렬화 비용을 보여준다.
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyHandlerDispatchBenchmark {
+
+    static final String USER_ID = "benchmark-user";
+
+    @Param({ "PointBought", "SubscriptionApplied", "PointRegistered", "UserRegistered", "OutOfPoint", "Unknown" })
+    public String eventType;
+
+    private ConfigurableApplicationContext context;
+    private MessageChannel inboundTopic;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        inboundTopic = context.getBean(KafkaProcessor.class).inboundTopic();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Point point = new Point();
+        point.setId(UUID.randomUUID().toString());
+        point.setUserId(new UserId(USER_ID));
+        point.setIsSubscribe(false);
+        Point.repository().save(point);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBalance() {
+        jdbcTemplate.update("update point_table set point = ? where user_id_value = ?", Integer.MAX_VALUE / 2, USER_ID);
+        jdbcTemplate.update("delete from point_ledger_table");
+        jdbcTemplate.update("delete from outbox_table");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        // 매번 새 이벤트 id 를 써서 중복 판별에 걸리지 않게 한다
+        return inboundTopic.send(
+            MessageBuilder
+                .withPayload(payload(eventType, sequence.incrementAndGet()))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .setHeader("type", eventType)
+                .build()
+        );
+    }
+
+    static byte[] payload(String eventType, long id) {
+        String json;
+        switch (eventType) {
+            case "PointBought":
+                json = "{\"eventType\":\"PointBought\",\"id\":\"" + id + "\",\"point\":1,\"userId\":{\"value\":\"" + USER_ID + "\"}}";
+                break;
+            case "SubscriptionApplied":
+                json = "{\"eventType\":\"SubscriptionApplied\",\"id\":" + id + ",\"cost\":1,\"userId\":{\"value\":\"" + USER_ID + "\"}}";
+                break;
+            case "PointRegistered":
+                json = "{\"eventType\":\"PointRegistered\",\"id\":\"" + id + "\",\"subscriberInfo\":\"" + USER_ID + "\",\"pointAmount\":1,\"hasSubscription\":false}";
+                break;
+            case "OutOfPoint":
+                json = "{\"eventType\":\"OutOfPoint\",\"id\":" + id + ",\"point\":0,\"userId\":{\"value\":\"" + USER_ID + "\"}}";
+                break;
+            default:
+                json = "{\"eventType\":\"" + eventType + "\",\"id\":\"" + id + "\"}";
+        }
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
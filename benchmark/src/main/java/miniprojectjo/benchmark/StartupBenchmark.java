@@ -0,0 +1,57 @@
+package miniprojectjo.benchmark;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// 콜드 스타트: 컨텍스트 시작부터 GET /points/userId/{userId} 가 처음 200 을 돌려줄 때까지 (웹 서버는 임의 포트).
+// 포크(새 JVM)마다 한 번만 측정한다. 조회 대상 행은 스키마 생성 직후 startup-benchmark.sql 로 넣는다.
+// AppCDS 효과는 아카이브를 지정해 비교한다: -jvmArgsAppend "-XX:SharedArchiveFile=..."
+// CI 에서는 -rf json 결과를 남겨 추이를 본다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    private static final String USER_ID = "startup-benchmark";
+
+    @Param({ "default", "startup" })
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public int timeToFirstGet() throws Exception {
+        context = BenchmarkContext.start(
+            WebApplicationType.SERVLET,
+            "spring.profiles.active=" + profile,
+            "server.port=0",
+            "spring.jpa.properties.hibernate.hbm2ddl.import_files=startup-benchmark.sql"
+        );
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        URL url = new URL("http://localhost:" + port + "/points/userId/" + USER_ID);
+        while (true) {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            int status = connection.getResponseCode();
+            connection.disconnect();
+            if (status == 200) {
+                return status;
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
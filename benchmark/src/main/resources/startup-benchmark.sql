@@ -0,0 +1 @@
+insert into point_table (id, point, is_subscribe, user_id_value) values ('startup-benchmark', 100, false, 'startup-benchmark');
@@ -0,0 +1,71 @@
+package miniprojectjo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+// 기동 최적화 ('startup' 프로파일 - application.yml 참고)
+// - 지연 초기화(spring.main.lazy-initialization)에서도 이벤트 소비(@StreamListener)와 주기 작업(@Scheduled)을 가진 빈은
+//   기동 시 만든다. 지연되면 리스너/스케줄이 등록되지 않는다.
+// - point.startup.exit-on-refresh=true 이면 빈 생성이 끝나고 바인딩이 시작되기 전에 종료한다.
+//   Dockerfile 의 AppCDS 학습 실행용 (브로커 없이 클래스 로딩만 수행, -XX:ArchiveClassesAtExit 로 아카이브 생성)
+@Configuration
+public class StartupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInboundAdapters() {
+        return (beanName, beanDefinition, beanType) -> {
+            if (beanType == null) {
+                return false;
+            }
+            boolean[] eager = new boolean[1];
+            ReflectionUtils.doWithMethods(
+                beanType,
+                method -> eager[0] = true,
+                method -> !eager[0] && (
+                    AnnotatedElementUtils.hasAnnotation(method, StreamListener.class) ||
+                    AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                )
+            );
+            return eager[0];
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "point.startup.exit-on-refresh", havingValue = "true")
+    public SmartLifecycle exitOnRefresh() {
+        return new SmartLifecycle() {
+            @Override
+            public void start() {
+                logger.info("AppCDS 학습 실행: 컨텍스트 초기화 완료, 바인딩 시작 전에 종료");
+                // 기동 중인 스레드가 컨텍스트 모니터를 잡고 있으므로 종료 훅(context.close) 없이 끝낸다.
+                // halt 도 JVM 종료 처리(-XX:ArchiveClassesAtExit 아카이브 기록)는 거친다.
+                Runtime.getRuntime().halt(0);
+            }
+
+            @Override
+            public void stop() {}
+
+            @Override
+            public boolean isRunning() {
+                return false;
+            }
+
+            // 다른 라이프사이클(바인딩, 웹 서버 등)보다 먼저
+            @Override
+            public int getPhase() {
+                return Integer.MIN_VALUE;
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package miniprojectjo.config.kafka;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.context.annotation.Configuration;
+
+// 폴링 바인딩은 PollableConsumerBinder(Kafka 바인더)가 있어야 하므로 끌 수 있게 분리한다 (테스트 바인더 등)
+@Configuration
+@ConditionalOnProperty(name = "point.dlq.replay.enabled", havingValue = "true", matchIfMissing = true)
+@EnableBinding(DeadLetterReplayProcessor.class)
+public class DeadLetterReplayConfig {}
@@ -0,0 +1,12 @@
+package miniprojectjo.config.kafka;
+
+import org.springframework.cloud.stream.annotation.Input;
+import org.springframework.cloud.stream.binder.PollableMessageSource;
+
+// DLQ 를 필요할 때만 꺼내 읽는 폴링 바인딩 (DeadLetterReplayController)
+public interface DeadLetterReplayProcessor {
+    String INPUT = "event-dlq-replay";
+
+    @Input(INPUT)
+    PollableMessageSource deadLetters();
+}
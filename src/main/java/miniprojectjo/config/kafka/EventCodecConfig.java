@@ -0,0 +1,36 @@
+package miniprojectjo.config.kafka;
+
+import miniprojectjo.infra.EventCodec;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+
+// 바이너리 이벤트(application/x-point-event)는 바인더에서 변환하지 않고 byte[] 그대로 전달한다.
+// 해석은 EventCodec 이 contentType 헤더를 보고 한다.
+// MessageConverter 빈은 바인더가 메시지 변환기 목록에 추가한다.
+@Configuration
+public class EventCodecConfig {
+
+    @Bean
+    public MessageConverter pointEventBinaryConverter() {
+        return new AbstractMessageConverter(EventCodec.BINARY) {
+            @Override
+            protected boolean supports(Class<?> clazz) {
+                return clazz == byte[].class || clazz == Object.class;
+            }
+
+            @Override
+            protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+                return message.getPayload() instanceof byte[] ? message.getPayload() : null;
+            }
+
+            @Override
+            protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+                return payload instanceof byte[] ? payload : null;
+            }
+        };
+    }
+}
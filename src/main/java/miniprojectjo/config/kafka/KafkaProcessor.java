@@ -8,10 +8,15 @@ import org.springframework.messaging.SubscribableChannel;
 public interface KafkaProcessor {
     String INPUT = "event-in";
     String OUTPUT = "event-out";
+    String DLQ_OUTPUT = "event-dlq";
 
     @Input(INPUT)
     SubscribableChannel inboundTopic();
 
     @Output(OUTPUT)
     MessageChannel outboundTopic();
+
+    // 재시도를 모두 실패한 수신 이벤트 (EventRetryScheduler)
+    @Output(DLQ_OUTPUT)
+    MessageChannel deadLetterTopic();
 }
@@ -3,11 +3,15 @@ package miniprojectjo.domain;
 import java.util.Date;
 import lombok.Data;
 
+// GET /points/query 조건 (PointProjection). 값이 없는(null) 조건은 적용하지 않는다.
 @Data
 public class GetPointQuery {
 
     private Long id;
-    private int point;
+    private Integer point;
+    // 잔액 범위 (양 끝 포함)
+    private Integer minPoint;
+    private Integer maxPoint;
     private Boolean isSubscribe;
     private UserId userId;
     private SubscriptionId subscriptionId;
@@ -16,6 +16,11 @@ public class OutOfPoint extends AbstractEvent {
     private UserId userId;
     private SubscriptionId subscriptionId;
 
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
     public OutOfPoint(Point aggregate) {
         super(aggregate);
     }
@@ -11,9 +11,22 @@ import miniprojectjo.domain.OutOfPoint;
 import miniprojectjo.domain.PointBought;
 import miniprojectjo.domain.PointDecreased;
 import miniprojectjo.domain.PointRegistered;
+import miniprojectjo.infra.HotAccounts;
+import miniprojectjo.infra.PointBalanceCache;
+import miniprojectjo.infra.PointGrants;
+import miniprojectjo.infra.PointMetrics;
+import miniprojectjo.infra.PointProjection;
 
 @Entity
-@Table(name = "Point_table")
+@Table(
+    name = "Point_table",
+    // 모든 조회 경로가 userId 로 찾으므로 유니크 인덱스 (사용자당 포인트 레코드 1건 보장)
+    // subscriptionId 는 조건 검색(PointSearchRepository)용. 잔액(point)은 변경마다 갱신되므로 인덱스를 두지 않는다.
+    indexes = {
+        @Index(name = "ux_point_user_id", columnList = "userId_value", unique = true),
+        @Index(name = "ix_point_subscription_id", columnList = "subscriptionId_value")
+    }
+)
 @Data
 @NoArgsConstructor 
 @AllArgsConstructor 
@@ -34,6 +47,16 @@ public class Point {
     @Embedded
     private SubscriptionId subscriptionId;
 
+    // hot 계정이면 분할 행(PointShard) 수, 아니면 null 또는 0. 잔액 = point + 분할 행 합계 (HotAccounts 참고)
+    private Integer shards;
+
+    // 예약(PointHold) 중인 포인트 합계 (null = 0). 잔액(point)에 포함되지만 차감에는 쓸 수 없다.
+    private Integer heldPoint;
+
+    // 차감에 쓸 수 있는 포인트 = point - heldPoint (hot 계정의 분할 행은 포함하지 않는다)
+    public int availablePoint() {
+        return heldPoint == null ? point : point - heldPoint;
+    }
 
 
     // 포인트 충전 (증가)
@@ -48,27 +71,63 @@ public class Point {
         return PointApplication.applicationContext.getBean(PointRepository.class);
     }
 
+    // JPA 로 저장/삭제되는 모든 경로(Spring Data REST 포함)에서 조회 캐시 무효화, 조회 프로젝션 반영
+    @PostPersist
+    @PostUpdate
+    public void onPostChange() {
+        PointBalanceCache.instance().invalidate(getUserId());
+        PointProjection.instance().applySaved(this);
+    }
+
+    @PostRemove
+    public void onPostRemove() {
+        PointBalanceCache.instance().invalidate(getUserId());
+        PointProjection.instance().applyRemoved(this);
+    }
+
     // // 회원 가입 시 포인트 지급 (미구현 템플릿) - 기존 주석 처리 상태 유지
 
     // 구독료 결제 시 포인트 차감
     public static void decreasePoint(SubscriptionApplied subscriptionApplied) {
+        PointMetrics.instance().recordDomain("decreasePoint", () -> applyDecrease(subscriptionApplied));
+    }
+
+    private static void applyDecrease(SubscriptionApplied subscriptionApplied) {
 
         UserId userIdValue      = subscriptionApplied.getUserId();
         int    subscriptionCost = subscriptionApplied.getCost();
 
+        // 잔액 비교와 차감을 한 번의 조건부 UPDATE로 처리 (동시 차감 시 lost update 방지)
+        int decreased = repository().decreasePointIfEnough(userIdValue, subscriptionCost);
+        // hot 계정은 분할 행에 쌓인 충전을 모은 뒤 한 번 더 시도
+        int updated = decreased == 0 && HotAccounts.instance().sweep(userIdValue) > 0
+            ? repository().decreasePointIfEnough(userIdValue, subscriptionCost)
+            : decreased;
+        if (updated > 0) {
+            // 벌크 UPDATE 는 엔티티 콜백을 거치지 않으므로 직접 무효화
+            PointBalanceCache.instance().invalidate(userIdValue);
+            // 만료가 이른 지급분부터 쓴다
+            PointGrants.instance().consume(userIdValue, subscriptionCost);
+            PointLedgerEntry.append(
+                userIdValue,
+                -subscriptionCost,
+                PointLedgerEntry.EntryType.DEDUCT,
+                subscriptionApplied.getId() == null ? null : String.valueOf(subscriptionApplied.getId())
+            );
+        }
+
         repository().findByUserId(userIdValue)
             .ifPresentOrElse(point -> {
-                if (point.getPoint() < subscriptionCost) {
+                if (updated == 0) {
                     OutOfPoint outOfPoint = new OutOfPoint(point);
                     outOfPoint.publishAfterCommit();
                     return;
                 }
 
-                point.setPoint(point.getPoint() - subscriptionCost);
-                repository().save(point);
-
                 PointDecreased pointDecreased = new PointDecreased(point);
+                pointDecreased.setPoint(HotAccounts.instance().currentBalanceOf(point));
                 pointDecreased.publishAfterCommit();
+                PointProjection.instance().applyDecreased(pointDecreased);
 
             }, () -> {
                 // 포인트 레코드가 없을 때
@@ -85,16 +144,29 @@ public class Point {
     // 상품·서비스 구매 시 포인트 처리 (PointBought 이벤트에 대한 처리)
     // 이 메서드는 PointBought 이벤트가 '포인트 구매/충전'을 의미한다고 가정하고, 포인트를 '증가'시킵니다.
     public static void purchasePoint(PointBought pointBought) {
+        PointMetrics.instance().recordDomain("purchasePoint", () -> applyPurchase(pointBought));
+    }
+
+    private static void applyPurchase(PointBought pointBought) {
 
         UserId userId = pointBought.getUserId();
-        repository().findByUserId(userId).ifPresent(point -> {
 
-            // PointBought 이벤트의 'point' 필드가 '구매 금액'을 의미한다고 가정합니다.
-            point.setPoint(point.getPoint() + pointBought.getPoint()); // <-- 포인트 증가 로직
-            repository().save(point);
+        // PointBought 이벤트의 'point' 필드가 '구매 금액'을 의미한다고 가정합니다.
+        // 단일 UPDATE 로 증가 (레코드가 없으면 기존과 같이 무시). hot 계정은 분할 행 하나에 더한다.
+        HotAccounts hotAccounts = HotAccounts.instance();
+        hotAccounts.recordCredit(userId);
+        boolean applied = hotAccounts.creditShard(userId, pointBought.getPoint());
+        if (!applied && repository().increasePoint(userId, pointBought.getPoint()) > 0) {
+            PointBalanceCache.instance().invalidate(userId);
+            applied = true;
+        }
+        if (applied) {
+            PointLedgerEntry.append(userId, pointBought.getPoint(), PointLedgerEntry.EntryType.PURCHASE, pointBought.getId());
+            PointGrants.instance().grant(userId, pointBought.getPoint(), PointLedgerEntry.EntryType.PURCHASE, pointBought.getId());
+            PointProjection.instance().applyBought(pointBought);
+        }
 
-            // 무한 루프 원인이었던 이벤트 재발행 로직은 제거
-        });
+        // 무한 루프 원인이었던 이벤트 재발행 로직은 제거
     }
 }
 //>>> DDD / Aggregate Root
\ No newline at end of file
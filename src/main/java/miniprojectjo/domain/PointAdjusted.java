@@ -0,0 +1,38 @@
+package miniprojectjo.domain;
+
+import lombok.Data;
+import lombok.ToString;
+import miniprojectjo.infra.AbstractEvent;
+
+//<<< DDD / Domain Event
+// 정합성 점검(PointReconciliation)으로 잔액을 이벤트 기준에 맞춘 보정 1건
+@Data
+@ToString
+public class PointAdjusted extends AbstractEvent {
+
+    private String id;
+    private UserId userId;
+    // 보정으로 더한 포인트 (음수면 차감)
+    private int delta;
+    // 보정 후 잔액
+    private int point;
+    // 점검한 이벤트 로그 파일
+    private String source;
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
+    public PointAdjusted(Point aggregate) {
+        super(aggregate);
+        this.id = aggregate.getId();
+        this.userId = aggregate.getUserId();
+        this.point = aggregate.getPoint();
+    }
+
+    public PointAdjusted() {
+        super();
+    }
+}
+//>>> DDD / Domain Event
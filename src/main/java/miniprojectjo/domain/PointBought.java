@@ -35,5 +35,10 @@ public class PointBought extends AbstractEvent {
     // public PointBought() {
     //     super();
     // }
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
 }
 //>>> DDD / Domain Event
\ No newline at end of file
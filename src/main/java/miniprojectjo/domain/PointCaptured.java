@@ -0,0 +1,37 @@
+package miniprojectjo.domain;
+
+import lombok.Data;
+import lombok.ToString;
+import miniprojectjo.infra.AbstractEvent;
+
+//<<< DDD / Domain Event
+// 포인트 예약 확정
+@Data
+@ToString
+public class PointCaptured extends AbstractEvent {
+
+    private String id;
+    private UserId userId;
+    private int amount;
+    // 실제로 차감된 포인트 (amount 중 나머지는 해제)
+    private int captured;
+    private String reference;
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
+    public PointCaptured(PointHold aggregate) {
+        super(aggregate);
+        this.id = aggregate.getId();
+        this.userId = aggregate.getUserId();
+        this.amount = aggregate.getAmount();
+        this.reference = aggregate.getReference();
+    }
+
+    public PointCaptured() {
+        super();
+    }
+}
+//>>> DDD / Domain Event
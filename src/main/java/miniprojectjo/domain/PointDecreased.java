@@ -15,6 +15,11 @@ public class PointDecreased extends AbstractEvent {
     private int point;
     private UserId userId;
 
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
     public PointDecreased(Point aggregate) {
         super(aggregate);
         this.id = aggregate.getId();
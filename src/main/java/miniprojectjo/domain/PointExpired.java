@@ -0,0 +1,38 @@
+package miniprojectjo.domain;
+
+import lombok.Data;
+import lombok.ToString;
+import miniprojectjo.infra.AbstractEvent;
+
+//<<< DDD / Domain Event
+// 사용자별 포인트 만료 (만료 처리 1회에 만료된 grant 를 모아 1건)
+@Data
+@ToString
+public class PointExpired extends AbstractEvent {
+
+    private String id;
+    private UserId userId;
+    // 만료로 차감된 포인트
+    private int amount;
+    // 만료된 grant 수
+    private int grants;
+    // 만료 후 잔액
+    private int point;
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
+    public PointExpired(Point aggregate) {
+        super(aggregate);
+        this.id = aggregate.getId();
+        this.userId = aggregate.getUserId();
+        this.point = aggregate.getPoint();
+    }
+
+    public PointExpired() {
+        super();
+    }
+}
+//>>> DDD / Domain Event
@@ -0,0 +1,59 @@
+package miniprojectjo.domain;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//<<< DDD / Entity
+// 만료되는 포인트 지급 1건 (가입 지급, 구매/충전). 잔액(Point.point)에는 이미 더해져 있고, 여기서는 남은 양과 만료 시각만 관리한다.
+// 차감은 만료가 가장 이른 grant 부터 remaining 을 줄이며, 다 쓰거나 만료된 grant 는 지운다 (이력은 원장).
+// 만료가 없는 포인트(ttl 0)는 grant 를 만들지 않는다 — grant 합계를 넘는 잔액은 만료되지 않는 포인트다.
+@Entity
+@Table(
+    name = "Point_grant_table",
+    indexes = {
+        // 사용자별 만료 순 차감 (PointGrants.consume)
+        @Index(name = "ix_point_grant_user_expires", columnList = "userId_value,expiresAt"),
+        // 만료 시각 구간 순회 (PointGrants.sweep)
+        @Index(name = "ix_point_grant_expires", columnList = "expiresAt,id")
+    }
+)
+@Data
+@NoArgsConstructor
+public class PointGrant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_grant_seq")
+    @SequenceGenerator(name = "point_grant_seq", sequenceName = "point_grant_seq", allocationSize = 1)
+    private Long id;
+
+    @Embedded
+    private UserId userId;
+
+    // 지급한 포인트
+    private int amount;
+
+    // 아직 쓰지 않은 포인트
+    private int remaining;
+
+    @Enumerated(EnumType.STRING)
+    private PointLedgerEntry.EntryType source;
+
+    // 지급 원인 이벤트 id
+    private String eventId;
+
+    private Long grantedAt;
+
+    private Long expiresAt;
+
+    public PointGrant(UserId userId, int amount, PointLedgerEntry.EntryType source, String eventId, long grantedAt, long expiresAt) {
+        this.userId = userId;
+        this.amount = amount;
+        this.remaining = amount;
+        this.source = source;
+        this.eventId = eventId;
+        this.grantedAt = grantedAt;
+        this.expiresAt = expiresAt;
+    }
+}
+//>>> DDD / Entity
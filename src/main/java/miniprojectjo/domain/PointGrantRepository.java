@@ -0,0 +1,64 @@
+package miniprojectjo.domain;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+//<<< PoEAA / Repository
+// 잠그는 조회는 Point 행을 먼저 잠근 뒤(차감 UPDATE, findAllForUpdateByUserIdValues) 부른다 (잠금 순서 고정)
+@RepositoryRestResource(exported = false)
+public interface PointGrantRepository
+    extends CrudRepository<PointGrant, Long> {
+    List<PointGrant> findByUserIdOrderByExpiresAtAscIdAsc(UserId userId);
+
+    // 만료가 이른 순 (차감)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "select pointGrant from PointGrant pointGrant " +
+        "where pointGrant.userId = :userId order by pointGrant.expiresAt, pointGrant.id"
+    )
+    List<PointGrant> findConsumable(@Param("userId") UserId userId, Pageable pageable);
+
+    // 만료 시각이 지난 grant (만료 처리)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "select pointGrant from PointGrant pointGrant " +
+        "where pointGrant.userId = :userId and pointGrant.expiresAt <= :now order by pointGrant.expiresAt, pointGrant.id"
+    )
+    List<PointGrant> findDue(@Param("userId") UserId userId, @Param("now") Long now);
+
+    // 여러 사용자의 grant 를 한 번에 (대량 처리 API)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "select pointGrant from PointGrant pointGrant " +
+        "where pointGrant.userId.value in :userIds order by pointGrant.userId.value, pointGrant.expiresAt, pointGrant.id"
+    )
+    List<PointGrant> findConsumableByUserIdValues(@Param("userIds") Collection<String> userIds);
+
+    // 만료 구간 순회: [from, to) 안에서 (expiresAt, id) 가 (afterExpiresAt, afterId) 다음인 것
+    // [expiresAt, id, userIdValue]
+    @Query(
+        "select pointGrant.expiresAt, pointGrant.id, pointGrant.userId.value from PointGrant pointGrant " +
+        "where pointGrant.expiresAt >= :from and pointGrant.expiresAt < :to " +
+        "and (pointGrant.expiresAt > :afterExpiresAt or (pointGrant.expiresAt = :afterExpiresAt and pointGrant.id > :afterId)) " +
+        "order by pointGrant.expiresAt, pointGrant.id"
+    )
+    List<Object[]> findExpiring(
+        @Param("from") Long from,
+        @Param("to") Long to,
+        @Param("afterExpiresAt") Long afterExpiresAt,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    // from 이후 가장 이른 만료 시각 (빈 구간 건너뛰기)
+    @Query("select min(pointGrant.expiresAt) from PointGrant pointGrant where pointGrant.expiresAt >= :from")
+    Long findNextExpiry(@Param("from") Long from);
+}
+//>>> PoEAA / Repository
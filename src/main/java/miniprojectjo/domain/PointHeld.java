@@ -0,0 +1,37 @@
+package miniprojectjo.domain;
+
+import lombok.Data;
+import lombok.ToString;
+import miniprojectjo.infra.AbstractEvent;
+
+//<<< DDD / Domain Event
+// 포인트 예약 생성 (expiresAt 까지 확정/해제되지 않으면 PointReleased(reason = expired))
+@Data
+@ToString
+public class PointHeld extends AbstractEvent {
+
+    private String id;
+    private UserId userId;
+    private int amount;
+    private String reference;
+    private Long expiresAt;
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
+    public PointHeld(PointHold aggregate) {
+        super(aggregate);
+        this.id = aggregate.getId();
+        this.userId = aggregate.getUserId();
+        this.amount = aggregate.getAmount();
+        this.reference = aggregate.getReference();
+        this.expiresAt = aggregate.getExpiresAt();
+    }
+
+    public PointHeld() {
+        super();
+    }
+}
+//>>> DDD / Domain Event
@@ -0,0 +1,57 @@
+package miniprojectjo.domain;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//<<< DDD / Entity
+// 포인트 예약 (hold → capture/release/expire). 예약 중인 포인트는 Point.heldPoint 에 더해져 사용 가능 잔액에서 빠진다.
+// 상태는 HELD 에서 한 번만 바뀐다 (조건부 UPDATE 로 동시 확정/해제 중 하나만 성공).
+@Entity
+@Table(
+    name = "Point_hold_table",
+    // 만료 누락분 확인(PointHolds.expireOverdue)이 HELD 중 만료 시각이 지난 것만 범위로 읽는다
+    indexes = @Index(name = "ix_point_hold_status_expires", columnList = "status,expiresAt")
+)
+@Data
+@NoArgsConstructor
+public class PointHold {
+
+    public enum Status {
+        HELD,
+        CAPTURED,
+        RELEASED,
+        EXPIRED
+    }
+
+    @Id
+    private String id;
+
+    @Embedded
+    private UserId userId;
+
+    private int amount;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // 호출한 쪽의 주문 번호 등 (선택)
+    private String reference;
+
+    private Long createdAt;
+
+    private Long expiresAt;
+
+    private Long completedAt;
+
+    public PointHold(String id, UserId userId, int amount, String reference, long expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.amount = amount;
+        this.status = Status.HELD;
+        this.reference = reference;
+        this.createdAt = System.currentTimeMillis();
+        this.expiresAt = expiresAt;
+    }
+}
+//>>> DDD / Entity
@@ -0,0 +1,39 @@
+package miniprojectjo.domain;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+//<<< PoEAA / Repository
+@RepositoryRestResource(exported = false)
+public interface PointHoldRepository
+    extends CrudRepository<PointHold, String> {
+    // 상태 전이 (반환값: 1 = 전이, 0 = 이미 다른 상태)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update PointHold hold set hold.status = :to, hold.completedAt = :completedAt " +
+        "where hold.id = :id and hold.status = :from"
+    )
+    int transition(
+        @Param("id") String id,
+        @Param("from") PointHold.Status from,
+        @Param("to") PointHold.Status to,
+        @Param("completedAt") Long completedAt
+    );
+
+    // [id, userIdValue] - (status, expiresAt) 인덱스 범위
+    @Query(
+        "select hold.id, hold.userId.value from PointHold hold " +
+        "where hold.status = :status and hold.expiresAt <= :before order by hold.expiresAt"
+    )
+    List<Object[]> findExpiring(
+        @Param("status") PointHold.Status status,
+        @Param("before") Long before,
+        Pageable pageable
+    );
+}
+//>>> PoEAA / Repository
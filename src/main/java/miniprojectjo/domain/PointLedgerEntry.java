@@ -0,0 +1,68 @@
+package miniprojectjo.domain;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniprojectjo.PointApplication;
+
+//<<< DDD / Entity
+// 포인트 원장 (append-only). 잔액 변경 1건마다 부호 있는 금액 1행을 추가하며 수정/삭제하지 않는다.
+// id 는 allocationSize=1 시퀀스로, 사용자 행 잠금(Point 업데이트) 이후에 발급되므로 사용자별로 커밋 순서와 일치한다.
+@Entity
+@Table(
+    name = "Point_ledger_table",
+    indexes = @Index(name = "ix_point_ledger_user_id", columnList = "userId_value,id")
+)
+@Data
+@NoArgsConstructor
+public class PointLedgerEntry {
+
+    public enum EntryType {
+        SIGNUP_GRANT,
+        PURCHASE,
+        CHARGE,
+        DEDUCT,
+        // 예약(PointHold) 확정
+        CAPTURE,
+        // 만료 (PointGrant)
+        EXPIRE,
+        // 정합성 점검 보정 (PointReconciliation)
+        ADJUST
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_ledger_seq")
+    @SequenceGenerator(name = "point_ledger_seq", sequenceName = "point_ledger_seq", allocationSize = 1)
+    private Long id;
+
+    @Embedded
+    private UserId userId;
+
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    private EntryType type;
+
+    // 원인이 된 이벤트 id (REST 요청으로 인한 변경이면 null)
+    private String eventId;
+
+    private Long createdAt;
+
+    public PointLedgerEntry(UserId userId, int delta, EntryType type, String eventId) {
+        this.userId = userId;
+        this.delta = delta;
+        this.type = type;
+        this.eventId = eventId;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public static PointLedgerRepository repository() {
+        return PointApplication.applicationContext.getBean(PointLedgerRepository.class);
+    }
+
+    // 잔액 변경 직후(같은 트랜잭션, Point 행 잠금 이후)에 호출한다
+    public static void append(UserId userId, int delta, EntryType type, String eventId) {
+        repository().save(new PointLedgerEntry(userId, delta, type, eventId));
+    }
+}
+//>>> DDD / Entity
@@ -0,0 +1,30 @@
+package miniprojectjo.domain;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+//<<< PoEAA / Repository
+@RepositoryRestResource(exported = false)
+public interface PointLedgerRepository
+    extends CrudRepository<PointLedgerEntry, Long> {
+    @Query(
+        "select coalesce(sum(entry.delta), 0) from PointLedgerEntry entry " +
+        "where entry.userId = :userId and entry.id > :afterId"
+    )
+    long sumAfter(@Param("userId") UserId userId, @Param("afterId") Long afterId);
+
+    // 생성된 지 settle 시간이 지난 (커밋이 끝났다고 볼 수 있는) 마지막 원장 id
+    @Query("select max(entry.id) from PointLedgerEntry entry where entry.createdAt <= :before")
+    Long findMaxIdCreatedBefore(@Param("before") Long before);
+
+    // [userIdValue, sum(delta), max(id)]
+    @Query(
+        "select entry.userId.value, sum(entry.delta), max(entry.id) from PointLedgerEntry entry " +
+        "where entry.id > :fromId and entry.id <= :toId group by entry.userId.value"
+    )
+    List<Object[]> sumByUserBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
+//>>> PoEAA / Repository
@@ -19,6 +19,11 @@ public class PointRegistered extends AbstractEvent {
     private int pointAmount;
     private boolean hasSubscription;
 
+    @Override
+    public String getMessageKey() {
+        return subscriberInfo;
+    }
+
     public PointRegistered(Point aggregate) {
     super(aggregate);
     this.id = aggregate.getId();
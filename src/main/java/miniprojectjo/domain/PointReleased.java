@@ -0,0 +1,37 @@
+package miniprojectjo.domain;
+
+import lombok.Data;
+import lombok.ToString;
+import miniprojectjo.infra.AbstractEvent;
+
+//<<< DDD / Domain Event
+// 포인트 예약 해제 (사용자 요청 또는 만료). 잔액은 그대로이고 예약분만 풀린다.
+@Data
+@ToString
+public class PointReleased extends AbstractEvent {
+
+    private String id;
+    private UserId userId;
+    private int amount;
+    // released = 요청, expired = 만료
+    private String reason;
+    private String reference;
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
+
+    public PointReleased(PointHold aggregate) {
+        super(aggregate);
+        this.id = aggregate.getId();
+        this.userId = aggregate.getUserId();
+        this.amount = aggregate.getAmount();
+        this.reference = aggregate.getReference();
+    }
+
+    public PointReleased() {
+        super();
+    }
+}
+//>>> DDD / Domain Event
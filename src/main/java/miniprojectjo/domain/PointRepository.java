@@ -1,30 +1,145 @@
 package miniprojectjo.domain;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import miniprojectjo.domain.*;
 import java.util.Optional;   // ★ 추가
+import javax.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 
 //<<< PoEAA / Repository
+// 조건 검색은 PointSearchRepository.search (값이 있는 조건만 SQL 에 넣고 userId 키셋으로 페이지를 나눈다)
 @RepositoryRestResource(collectionResourceRel = "points", path = "points")
 public interface PointRepository
-    extends PagingAndSortingRepository<Point, String> {
-    @Query(
-        value = "select point " +
-        "from Point point " +
-        "where(:id is null or point.id = :id) and (:point is null or point.point = :point) and (point.isSubscribe = :isSubscribe) and (:userId is null or point.userId = :userId) and (:subscriptionId is null or point.subscriptionId = :subscriptionId)"
-    )
-    Point getPoint(
-        String id,
-        int point,
-        Boolean isSubscribe,
-        UserId userId,
-        SubscriptionId subscriptionId
+    extends PagingAndSortingRepository<Point, String>, PointSearchRepository {
+    Optional<Point> findByUserId(UserId userId);
+
+    // 여러 사용자의 포인트 레코드를 한 번의 IN 쿼리로 조회 (다건 조회 API)
+    @RestResource(exported = false)
+    List<Point> findByUserIdValueIn(Collection<String> userIds);
+
+    // 여러 사용자의 포인트 레코드를 한 번의 IN 쿼리로 잠그며 조회 (userId 순서로 잠가 교착 방지)
+    @RestResource(exported = false)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "select point from Point point " +
+        "where point.userId.value in :userIds order by point.userId.value"
+    )
+    List<Point> findAllForUpdateByUserIdValues(@Param("userIds") Collection<String> userIds);
+
+    // 잔액이 충분할 때만 차감하는 단일 UPDATE (조회 → 비교 → 저장 사이의 lost update 방지)
+    // 예약(heldPoint)된 포인트는 쓸 수 없다. 반환값: 1 = 차감 완료, 0 = 잔액 부족 또는 포인트 레코드 없음
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point " +
+        "set point.point = point.point - :amount " +
+        "where point.userId = :userId and point.point - coalesce(point.heldPoint, 0) >= :amount"
+    )
+    int decreasePointIfEnough(
+        @Param("userId") UserId userId,
+        @Param("amount") int amount
     );
 
-    Optional<Point> findByUserId(UserId userId);
+    // 포인트 예약 (PointHolds): 쓸 수 있는 포인트가 충분할 때만 heldPoint 에 더한다
+    // 반환값: 1 = 예약, 0 = 잔액 부족 또는 포인트 레코드 없음
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point " +
+        "set point.heldPoint = coalesce(point.heldPoint, 0) + :amount " +
+        "where point.userId = :userId and point.point - coalesce(point.heldPoint, 0) >= :amount"
+    )
+    int holdIfAvailable(
+        @Param("userId") UserId userId,
+        @Param("amount") int amount
+    );
+
+    // 예약 확정: 예약분(held)을 풀고 그중 captured 만큼 잔액에서 뺀다 (captured <= held)
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point " +
+        "set point.point = point.point - :captured, point.heldPoint = point.heldPoint - :held " +
+        "where point.userId = :userId and point.heldPoint >= :held"
+    )
+    int captureHeld(
+        @Param("userId") UserId userId,
+        @Param("held") int held,
+        @Param("captured") int captured
+    );
+
+    // 예약 해제/만료: 잔액은 그대로 두고 예약분만 푼다
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point " +
+        "set point.heldPoint = point.heldPoint - :amount " +
+        "where point.userId = :userId and point.heldPoint >= :amount"
+    )
+    int releaseHeld(
+        @Param("userId") UserId userId,
+        @Param("amount") int amount
+    );
+
+    // 레코드가 있을 때만 amount 만큼 증가하는 단일 UPDATE (반환값: 1 = 증가, 0 = 레코드 없음)
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point " +
+        "set point.point = point.point + :amount " +
+        "where point.userId = :userId"
+    )
+    int increasePoint(
+        @Param("userId") UserId userId,
+        @Param("amount") int amount
+    );
+
+    // hot 계정 승격/강등 (shards: 분할 행 수, 0 = 일반 계정)
+    // 반환값: 1 = 승격, 0 = 레코드가 없거나 이미 hot 계정
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update Point point set point.shards = :shards " +
+        "where point.userId = :userId and (point.shards is null or point.shards = 0)"
+    )
+    int promoteShards(@Param("userId") UserId userId, @Param("shards") int shards);
+
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Point point set point.shards = 0 where point.userId = :userId")
+    int clearShards(@Param("userId") UserId userId);
+
+    // [userIdValue, shards]
+    @RestResource(exported = false)
+    @Query("select point.userId.value, point.shards from Point point where point.shards > 0")
+    List<Object[]> findSharded();
+
+    // userId 레코드가 있으면 amount 만큼 충전, 없으면 생성 (ux_point_user_id 로 중복 생성 불가)
+    // 동시에 같은 사용자를 생성하면 한쪽이 유니크 제약 위반으로 롤백되고, 재전달 시 충전 경로로 반영된다.
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        nativeQuery = true,
+        value = "merge into point_table target " +
+        "using (select cast(:userId as varchar(255)) as user_id_value) source " +
+        "on (target.user_id_value = source.user_id_value) " +
+        "when matched then update set point = target.point + :amount " +
+        "when not matched then insert (id, point, is_subscribe, user_id_value) " +
+        "values (:id, :amount, :isSubscribe, :userId)"
+    )
+    int upsertPoint(
+        @Param("id") String id,
+        @Param("userId") String userId,
+        @Param("amount") int amount,
+        @Param("isSubscribe") boolean isSubscribe
+    );
 }
@@ -0,0 +1,12 @@
+package miniprojectjo.domain;
+
+import java.util.List;
+
+//<<< PoEAA / Repository
+// PointRepository 에 붙는 검색 구현 (PointSearchRepositoryImpl)
+public interface PointSearchRepository {
+
+    // GetPointQuery 조건에 맞는 포인트를 userId 순서로 afterUserId 다음부터 최대 limit 건 (afterUserId 가 null 이면 처음부터)
+    List<Point> search(GetPointQuery query, String afterUserId, int limit);
+}
+//>>> PoEAA / Repository
@@ -0,0 +1,38 @@
+package miniprojectjo.domain;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+//<<< PoEAA / Repository
+// 페이지 번호(offset) 대신 마지막 userId 를 기준으로 다음 페이지를 읽는다 (키셋).
+// 페이지가 뒤로 가도 앞 행을 읽고 버리지 않고, count 쿼리도 없다.
+public class PointSearchRepositoryImpl implements PointSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Point> search(GetPointQuery query, String afterUserId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Point> criteriaQuery = builder.createQuery(Point.class);
+        Root<Point> root = criteriaQuery.from(Point.class);
+
+        Specification<Point> specification = PointSpecifications.matching(query)
+            .and(PointSpecifications.userIdAfter(afterUserId));
+        Predicate predicate = specification.toPredicate(root, criteriaQuery, builder);
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        criteriaQuery.orderBy(builder.asc(root.get("userId").get("value")));
+        return entityManager.createQuery(criteriaQuery)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
+//>>> PoEAA / Repository
@@ -0,0 +1,36 @@
+package miniprojectjo.domain;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//<<< DDD / Entity
+// hot 계정(Point.shards > 0)의 분할 잔액. 계정 잔액 = Point.point + 분할 행 합계.
+// 충전은 분할 행 중 하나에 더해 한 행에 몰리는 잠금 대기를 나눈다. 차감/강등 시 분할 행을 Point 로 모은다.
+@Entity
+@Table(
+    name = "Point_shard_table",
+    indexes = @Index(name = "ux_point_shard_user_id", columnList = "userId_value,shard", unique = true)
+)
+@Data
+@NoArgsConstructor
+public class PointShard {
+
+    // userId#shard
+    @Id
+    private String id;
+
+    @Embedded
+    private UserId userId;
+
+    private int shard;
+
+    private int point;
+
+    public PointShard(UserId userId, int shard) {
+        this.id = userId.getValue() + "#" + shard;
+        this.userId = userId;
+        this.shard = shard;
+    }
+}
+//>>> DDD / Entity
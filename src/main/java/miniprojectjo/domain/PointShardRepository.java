@@ -0,0 +1,37 @@
+package miniprojectjo.domain;
+
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+//<<< PoEAA / Repository
+@RepositoryRestResource(exported = false)
+public interface PointShardRepository
+    extends CrudRepository<PointShard, String> {
+    // 분할 행 하나에 amount 만큼 더한다 (반환값: 1 = 반영, 0 = 분할 행 없음 - 강등됨)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+        "update PointShard shard " +
+        "set shard.point = shard.point + :amount " +
+        "where shard.userId = :userId and shard.shard = :shard"
+    )
+    int increaseShard(
+        @Param("userId") UserId userId,
+        @Param("shard") int shard,
+        @Param("amount") int amount
+    );
+
+    @Query("select coalesce(sum(shard.point), 0) from PointShard shard where shard.userId = :userId")
+    long sumByUserId(@Param("userId") UserId userId);
+
+    // 모으기/강등 전에 분할 행을 잠근다 (잠그는 동안 들어온 충전은 기다렸다가 반영되거나, 행이 지워졌으면 Point 로 간다)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select shard from PointShard shard where shard.userId = :userId order by shard.shard")
+    List<PointShard> findAllForUpdateByUserId(@Param("userId") UserId userId);
+}
+//>>> PoEAA / Repository
@@ -0,0 +1,40 @@
+package miniprojectjo.domain;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//<<< DDD / Entity
+// 사용자별 잔액 스냅샷 (append-only). lastEntryId 까지의 원장 합계이며,
+// 잔액 = 최신 스냅샷 + 이후 원장 합계.
+@Entity
+@Table(
+    name = "Point_snapshot_table",
+    indexes = @Index(name = "ix_point_snapshot_user_id", columnList = "userId_value,lastEntryId")
+)
+@Data
+@NoArgsConstructor
+public class PointSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_snapshot_seq")
+    @SequenceGenerator(name = "point_snapshot_seq", sequenceName = "point_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @Embedded
+    private UserId userId;
+
+    private long balance;
+
+    private Long lastEntryId;
+
+    private Long createdAt;
+
+    public PointSnapshot(UserId userId, long balance, Long lastEntryId) {
+        this.userId = userId;
+        this.balance = balance;
+        this.lastEntryId = lastEntryId;
+        this.createdAt = System.currentTimeMillis();
+    }
+}
+//>>> DDD / Entity
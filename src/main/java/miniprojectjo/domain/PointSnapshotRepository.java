@@ -0,0 +1,27 @@
+package miniprojectjo.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+//<<< PoEAA / Repository
+@RepositoryRestResource(exported = false)
+public interface PointSnapshotRepository
+    extends CrudRepository<PointSnapshot, Long> {
+    Optional<PointSnapshot> findTopByUserIdOrderByLastEntryIdDesc(UserId userId);
+
+    @Query(
+        "select snapshot from PointSnapshot snapshot " +
+        "where snapshot.userId.value in :userIds and snapshot.lastEntryId = (" +
+        "select max(latest.lastEntryId) from PointSnapshot latest where latest.userId = snapshot.userId)"
+    )
+    List<PointSnapshot> findLatestByUserIdValues(@Param("userIds") Collection<String> userIds);
+
+    @Query("select max(snapshot.lastEntryId) from PointSnapshot snapshot")
+    Long findMaxLastEntryId();
+}
+//>>> PoEAA / Repository
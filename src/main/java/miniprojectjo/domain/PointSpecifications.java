@@ -0,0 +1,68 @@
+package miniprojectjo.domain;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+//<<< PoEAA / Query Object
+// GetPointQuery 의 값이 있는 조건만 조건식으로 만든다 (없는 조건은 SQL 에 나오지 않는다).
+// 조건 조합마다 SQL 이 하나로 정해지고 값은 모두 바인딩되므로 (hibernate.criteria.literal_handling_mode=bind)
+// 같은 조합의 검색은 Hibernate 쿼리 계획 캐시와 JDBC 문장 캐시를 다시 쓴다.
+// 잔액 조건(point, minPoint, maxPoint)은 hot 계정의 분할 행(PointShard) 합계를 더한 값으로 비교한다.
+public final class PointSpecifications {
+
+    private PointSpecifications() {}
+
+    public static Specification<Point> matching(GetPointQuery query) {
+        Specification<Point> specification = Specification.where(null);
+        if (query.getId() != null) {
+            specification = specification.and((root, criteriaQuery, builder) -> builder.equal(root.get("id"), String.valueOf(query.getId())));
+        }
+        if (query.getUserId() != null && query.getUserId().getValue() != null) {
+            specification = specification.and(attributeEquals("userId", query.getUserId().getValue()));
+        }
+        if (query.getSubscriptionId() != null && query.getSubscriptionId().getValue() != null) {
+            specification = specification.and(attributeEquals("subscriptionId", query.getSubscriptionId().getValue()));
+        }
+        if (query.getIsSubscribe() != null) {
+            specification = specification.and((root, criteriaQuery, builder) -> builder.equal(root.get("isSubscribe"), query.getIsSubscribe()));
+        }
+        if (query.getPoint() != null) {
+            specification = specification.and((root, criteriaQuery, builder) -> builder.equal(balance(root, criteriaQuery, builder), query.getPoint().longValue()));
+        }
+        if (query.getMinPoint() != null) {
+            specification = specification.and((root, criteriaQuery, builder) -> builder.greaterThanOrEqualTo(balance(root, criteriaQuery, builder), query.getMinPoint().longValue()));
+        }
+        if (query.getMaxPoint() != null) {
+            specification = specification.and((root, criteriaQuery, builder) -> builder.lessThanOrEqualTo(balance(root, criteriaQuery, builder), query.getMaxPoint().longValue()));
+        }
+        return specification;
+    }
+
+    // 키셋 페이지: userId 순서에서 afterUserId 다음부터 (ux_point_user_id 인덱스 범위 스캔)
+    public static Specification<Point> userIdAfter(String afterUserId) {
+        if (afterUserId == null) {
+            return null;
+        }
+        return (root, criteriaQuery, builder) -> builder.greaterThan(root.get("userId").get("value"), afterUserId);
+    }
+
+    // 잔액 = Point + hot 계정 분할 행 합계 (단건 조회/내보내기와 같은 기준)
+    // 후보 행마다 실행되는 상관 부분 질의다. ux_point_shard_user_id(userId_value, shard) 의 앞 열로 찾으므로 사용자당 인덱스 탐색 한 번이다.
+    // 잔액 조건만 있으면 (userId/subscriptionId 없이) 키셋 순서로 훑는 행마다 실행된다.
+    private static Expression<Long> balance(Root<Point> root, CriteriaQuery<?> criteriaQuery, CriteriaBuilder builder) {
+        Subquery<Long> shards = criteriaQuery.subquery(Long.class);
+        Root<PointShard> shard = shards.from(PointShard.class);
+        shards.select(builder.sumAsLong(shard.<Integer>get("point")))
+            .where(builder.equal(shard.get("userId").get("value"), root.get("userId").get("value")));
+        return builder.sum(builder.toLong(root.<Integer>get("point")), builder.coalesce(shards, 0L));
+    }
+
+    private static Specification<Point> attributeEquals(String embedded, String value) {
+        return (root, criteriaQuery, builder) -> builder.equal(root.get(embedded).get("value"), value);
+    }
+}
+//>>> PoEAA / Query Object
@@ -18,4 +18,9 @@ public class SubscriptionApplied extends AbstractEvent {
     private String pdfPath;
 
     private Integer cost; // 새로 추가
+
+    @Override
+    public String getMessageKey() {
+        return userId == null ? null : userId.getValue();
+    }
 }
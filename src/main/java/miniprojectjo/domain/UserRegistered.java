@@ -12,4 +12,9 @@ public class UserRegistered extends AbstractEvent {
     private String id;
     private String email;
     private String userName;
+
+    @Override
+    public String getMessageKey() {
+        return id;
+    }
 }
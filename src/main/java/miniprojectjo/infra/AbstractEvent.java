@@ -1,16 +1,15 @@
 package miniprojectjo.infra;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
 import miniprojectjo.PointApplication;
 import miniprojectjo.config.kafka.KafkaProcessor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
-import org.springframework.transaction.support.TransactionSynchronizationAdapter;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
-import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.MimeType;
 
 //<<< Clean Arch / Outbound Adaptor
 public class AbstractEvent {
@@ -20,7 +19,7 @@ public class AbstractEvent {
 
     public AbstractEvent(Object aggregate) {
         this();
-        BeanUtils.copyProperties(aggregate, this);
+        EventCodec.copyProperties(aggregate, this);
     }
 
     public AbstractEvent() {
@@ -36,28 +35,39 @@ public class AbstractEvent {
             KafkaProcessor.class
         );
         MessageChannel outputChannel = processor.outboundTopic();
+        EventCodec codec = EventCodec.instance();
+        MimeType contentType = codec.contentTypeOf(this);
 
         outputChannel.send(
             MessageBuilder
-                .withPayload(this)
+                .withPayload(EventCodec.encode(this, contentType))
                 .setHeader(
                     MessageHeaders.CONTENT_TYPE,
-                    MimeTypeUtils.APPLICATION_JSON
+                    contentType
                 )
                 .setHeader("type", getEventType())
+                .setHeader(KafkaHeaders.MESSAGE_KEY, getMessageKey())
                 .build()
         );
+        PointMetrics.instance().eventPublished(getEventType());
     }
 
     public void publishAfterCommit() {
-        TransactionSynchronizationManager.registerSynchronization(
-            new TransactionSynchronizationAdapter() {
-                @Override
-                public void afterCompletion(int status) {
-                    AbstractEvent.this.publish();
-                }
-            }
-        );
+        /**
+         * transactional outbox 방식
+         * 현재 트랜잭션에 아웃박스 레코드로 기록하고, 커밋된 레코드만 OutboxRelay 가 발행한다.
+         * (롤백된 트랜잭션의 이벤트는 발행되지 않으며, 요청 스레드는 브로커 전송을 기다리지 않는다)
+         */
+        OutboxEvent.repository().save(new OutboxEvent(this));
+    }
+
+    // 여러 이벤트를 아웃박스에 배치 INSERT 로 기록
+    public static void publishAllAfterCommit(List<? extends AbstractEvent> events) {
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (AbstractEvent event : events) {
+            outboxEvents.add(new OutboxEvent(event));
+        }
+        OutboxEvent.repository().saveAll(outboxEvents);
     }
 
     public String getEventType() {
@@ -76,21 +86,18 @@ public class AbstractEvent {
         this.timestamp = timestamp;
     }
 
+    // Kafka 메시지 키. 같은 사용자의 이벤트를 같은 파티션에 보내 사용자별 순서를 지킨다 (null 이면 키 없이 발행)
+    @JsonIgnore
+    public String getMessageKey() {
+        return null;
+    }
+
     public boolean validate() {
         return getEventType().equals(getClass().getSimpleName());
     }
 
     public String toJson() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        String json = null;
-
-        try {
-            json = objectMapper.writeValueAsString(this);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("JSON format exception", e);
-        }
-
-        return json;
+        return EventCodec.toJson(this);
     }
 }
 //>>> Clean Arch / Outbound Adaptor
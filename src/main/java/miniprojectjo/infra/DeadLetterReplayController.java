@@ -0,0 +1,102 @@
+package miniprojectjo.infra;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import miniprojectjo.config.kafka.DeadLetterReplayProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.bind.annotation.*;
+
+//<<< EDA / Retry & Dead Letter
+// DLQ 에 쌓인 이벤트를 필요한 만큼 꺼내 PolicyHandler 로 다시 처리한다 (폴링 바인딩 event-dlq-replay).
+// 한 번에 max 건까지, 초당 ratePerSecond 건을 넘지 않게 처리한다. 다시 실패한 이벤트는 재시도를 처음부터 거쳐 DLQ 로 돌아간다.
+@RestController
+@RequestMapping(value = "/points/dlq")
+@ConditionalOnProperty(name = "point.dlq.replay.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadLetterReplayController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayController.class);
+
+    @Autowired
+    DeadLetterReplayProcessor deadLetterReplayProcessor;
+
+    // 배치 소비 모드(point.batch.enabled=true)에서는 PolicyHandler 가 없다
+    @Autowired
+    ObjectProvider<PolicyHandler> policyHandler;
+
+    @Value("${point.dlq.replay.max-batch:1000}")
+    int replayMaxBatch;
+
+    @Value("${point.dlq.replay.rate-per-second:50}")
+    int replayRatePerSecond;
+
+    // 1. DLQ 재주입 (POST)
+    // 예: POST http://localhost:8084/points/dlq/replay?max=100&ratePerSecond=20
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(
+        @RequestParam(defaultValue = "100") int max,
+        @RequestParam(required = false) Integer ratePerSecond
+    ) {
+        PolicyHandler handler = policyHandler.getIfAvailable();
+        if (handler == null) {
+            logger.warn("DLQ 재주입 요청 거부: 건별 소비(PolicyHandler)가 꺼져 있음");
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        int limit = Math.max(0, Math.min(max, replayMaxBatch));
+        int rate = ratePerSecond == null ? replayRatePerSecond : ratePerSecond;
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0L;
+        logger.info("DLQ 재주입 요청 수신: max={}, ratePerSecond={}", limit, rate);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        boolean drained = false;
+        try {
+            long next = System.nanoTime();
+            for (int i = 0; i < limit; i++) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                next = Math.max(next, System.nanoTime()) + intervalNanos;
+
+                // 시도 횟수를 지우고 처음 받은 메시지처럼 처리한다 (x-original-* 는 유지)
+                boolean polled = deadLetterReplayProcessor.deadLetters().poll(message -> {
+                    boolean handled = handler.process(
+                        MessageBuilder.fromMessage(message).removeHeader(EventRetryScheduler.ATTEMPT).build()
+                    );
+                    (handled ? succeeded : failed).incrementAndGet();
+                });
+                if (!polled) {
+                    drained = true;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("DLQ 재주입 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>(result(succeeded, failed, false), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        logger.info("DLQ 재주입 완료: 성공 {}건, 실패 {}건, DLQ 비었음={}", succeeded.get(), failed.get(), drained);
+        return new ResponseEntity<>(result(succeeded, failed, drained), HttpStatus.OK);
+    }
+
+    private static Map<String, Object> result(AtomicInteger succeeded, AtomicInteger failed, boolean drained) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("replayed", succeeded.get() + failed.get());
+        body.put("succeeded", succeeded.get());
+        body.put("failed", failed.get());
+        body.put("drained", drained);
+        return body;
+    }
+}
+//>>> EDA / Retry & Dead Letter
@@ -0,0 +1,270 @@
+package miniprojectjo.infra;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import miniprojectjo.PointApplication;
+import miniprojectjo.domain.PointBought;
+import miniprojectjo.domain.PointDecreased;
+import miniprojectjo.domain.UserId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MimeTypeUtils;
+
+//<<< EDA / Event Codec
+// 이벤트 직렬화/역직렬화와 aggregate → 이벤트 속성 복사.
+// - JSON: 클래스별 ObjectWriter/ObjectReader 를 한 번 만들어 재사용 (기존 toJson 과 같은 기본 ObjectMapper 설정)
+// - 속성 복사: (원본, 대상) 클래스 쌍마다 getter/setter MethodHandle 을 한 번 찾아 재사용 (BeanUtils.copyProperties 대체)
+// - 바이너리: 대량 이벤트(PointBought, PointDecreased)용 스키마 태그 포맷 (application/x-point-event).
+//   point.codec.binary-types 에 지정한 이벤트만 바이너리로 발행하며, 수신 측은 contentType 헤더로 포맷을 고른다.
+@Component
+public class EventCodec {
+
+    public static final MimeType BINARY = MimeType.valueOf("application/x-point-event");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<ObjectWriter>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writerFor(type);
+        }
+    };
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            // 다른 서비스가 필드를 추가해도 읽을 수 있도록 (기존 메시지 컨버터와 동일)
+            return MAPPER.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+    };
+    private static final ClassValue<Map<Class<?>, PropertyCopier>> COPIERS = new ClassValue<Map<Class<?>, PropertyCopier>>() {
+        @Override
+        protected Map<Class<?>, PropertyCopier> computeValue(Class<?> sourceClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // 바이너리 포맷: [MAGIC][schemaId][version] + 스키마별 필드
+    private static final byte MAGIC = (byte) 0xB7;
+    private static final byte VERSION = 1;
+    private static final byte SCHEMA_POINT_BOUGHT = 1;
+    private static final byte SCHEMA_POINT_DECREASED = 2;
+
+    // 컨텍스트 없이 쓰일 때(벤치마크 등)는 모든 이벤트를 JSON 으로
+    private static final EventCodec JSON_ONLY = new EventCodec(Collections.emptyList());
+
+    private final Set<String> binaryTypes;
+
+    @Autowired
+    public EventCodec(@Value("${point.codec.binary-types:}") List<String> binaryTypes) {
+        this.binaryTypes = new HashSet<>(binaryTypes);
+    }
+
+    public static EventCodec instance() {
+        ApplicationContext context = PointApplication.applicationContext;
+        return context == null ? JSON_ONLY : context.getBean(EventCodec.class);
+    }
+
+    // 발행 시 사용할 포맷
+    public MimeType contentTypeOf(AbstractEvent event) {
+        return binaryTypes.contains(event.getEventType()) && supportsBinary(event.getClass())
+            ? BINARY
+            : MimeTypeUtils.APPLICATION_JSON;
+    }
+
+    public static byte[] encode(AbstractEvent event, MimeType contentType) {
+        if (BINARY.equalsTypeAndSubtype(contentType)) {
+            return encodeBinary(event);
+        }
+        return toJson(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String toJson(AbstractEvent event) {
+        try {
+            return WRITERS.get(event.getClass()).writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON format exception", e);
+        }
+    }
+
+    // payload 는 byte[] 또는 String, contentType 은 헤더 값 그대로 (MimeType, String, byte[] 또는 null)
+    public static <T> T decode(Object payload, Object contentType, Class<T> eventClass) throws IOException {
+        if (payload instanceof byte[]) {
+            byte[] bytes = (byte[]) payload;
+            if (isBinary(contentType) && bytes.length > 0 && bytes[0] == MAGIC) {
+                return eventClass.cast(decodeBinary(bytes));
+            }
+            return READERS.get(eventClass).readValue(bytes);
+        }
+        return READERS.get(eventClass).readValue(String.valueOf(payload));
+    }
+
+    public static boolean supportsBinary(Class<?> eventClass) {
+        return eventClass == PointBought.class || eventClass == PointDecreased.class;
+    }
+
+    public static void copyProperties(Object source, Object target) {
+        Class<?> sourceClass = source.getClass();
+        COPIERS.get(sourceClass)
+            .computeIfAbsent(target.getClass(), targetClass -> new PropertyCopier(sourceClass, targetClass))
+            .copy(source, target);
+    }
+
+    private static boolean isBinary(Object contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        if (contentType instanceof MimeType) {
+            return BINARY.equalsTypeAndSubtype((MimeType) contentType);
+        }
+        String value = EventHeaders.type(contentType);
+        return value.startsWith(BINARY.toString());
+    }
+
+    private static byte[] encodeBinary(AbstractEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            if (event instanceof PointBought) {
+                PointBought pointBought = (PointBought) event;
+                out.writeByte(SCHEMA_POINT_BOUGHT);
+                out.writeByte(VERSION);
+                writeLong(out, pointBought.getTimestamp());
+                writeString(out, pointBought.getId());
+                out.writeInt(pointBought.getPoint());
+                writeString(out, pointBought.getUserId() == null ? null : pointBought.getUserId().getValue());
+            } else if (event instanceof PointDecreased) {
+                PointDecreased pointDecreased = (PointDecreased) event;
+                out.writeByte(SCHEMA_POINT_DECREASED);
+                out.writeByte(VERSION);
+                writeLong(out, pointDecreased.getTimestamp());
+                writeString(out, pointDecreased.getId());
+                out.writeInt(pointDecreased.getPoint());
+                writeString(out, pointDecreased.getUserId() == null ? null : pointDecreased.getUserId().getValue());
+            } else {
+                throw new IllegalArgumentException("바이너리 포맷을 지원하지 않는 이벤트입니다: " + event.getEventType());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AbstractEvent decodeBinary(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readByte();
+        byte schema = in.readByte();
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("지원하지 않는 바이너리 이벤트 버전입니다: schema=" + schema + ", version=" + version);
+        }
+        switch (schema) {
+            case SCHEMA_POINT_BOUGHT: {
+                PointBought pointBought = new PointBought();
+                pointBought.setTimestamp(readLong(in));
+                pointBought.setId(readString(in));
+                pointBought.setPoint(in.readInt());
+                pointBought.setUserId(readUserId(in));
+                return pointBought;
+            }
+            case SCHEMA_POINT_DECREASED: {
+                PointDecreased pointDecreased = new PointDecreased();
+                pointDecreased.setTimestamp(readLong(in));
+                pointDecreased.setId(readString(in));
+                pointDecreased.setPoint(in.readInt());
+                pointDecreased.setUserId(readUserId(in));
+                return pointDecreased;
+            }
+            default:
+                throw new IOException("알 수 없는 바이너리 이벤트 스키마입니다: " + schema);
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value);
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        long value = in.readLong();
+        return value == Long.MIN_VALUE ? null : value;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static UserId readUserId(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value == null ? null : new UserId(value);
+    }
+
+    // BeanUtils.copyProperties 와 같은 규칙(이름이 같고 대입 가능한 읽기/쓰기 속성)으로 한 번 찾아 둔 getter/setter 쌍
+    private static final class PropertyCopier {
+
+        private final List<MethodHandle[]> properties = new ArrayList<>();
+
+        PropertyCopier(Class<?> sourceClass, Class<?> targetClass) {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            for (PropertyDescriptor targetProperty : BeanUtils.getPropertyDescriptors(targetClass)) {
+                Method writeMethod = targetProperty.getWriteMethod();
+                PropertyDescriptor sourceProperty = writeMethod == null
+                    ? null
+                    : BeanUtils.getPropertyDescriptor(sourceClass, targetProperty.getName());
+                Method readMethod = sourceProperty == null ? null : sourceProperty.getReadMethod();
+                if (readMethod == null || !ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType())) {
+                    continue;
+                }
+                try {
+                    properties.add(new MethodHandle[] {
+                        lookup.unreflect(readMethod).asType(MethodType.methodType(Object.class, Object.class)),
+                        lookup.unreflect(writeMethod).asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                    });
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("속성에 접근할 수 없습니다: " + targetProperty.getName(), e);
+                }
+            }
+        }
+
+        void copy(Object source, Object target) {
+            try {
+                for (MethodHandle[] property : properties) {
+                    property[1].invokeExact(target, (Object) property[0].invokeExact(source));
+                }
+            } catch (Throwable e) {
+                throw new IllegalStateException("속성 복사에 실패했습니다: " + source.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
+//>>> EDA / Event Codec
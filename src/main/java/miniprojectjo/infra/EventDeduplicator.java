@@ -0,0 +1,215 @@
+package miniprojectjo.infra;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//<<< EDA / Idempotent Consumer
+// 잔액을 바꾸는 이벤트를 한 번만 반영하기 위한 중복 판별기.
+// 1) 최근 커밋된 이벤트 id LRU  2) 2세대 블룸 필터  3) Processed_event_table (PK 로 최종 보장)
+// 블룸 필터에 없으면 바로 INSERT 하고, 있으면 테이블을 확인한다. 메모리는 LRU 크기와 블룸 필터 2세대로 고정된다.
+@Component
+public class EventDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    private static final String INSERT_SQL =
+        "insert into processed_event_table (event_id, event_type, processed_at) values (?, ?, ?)";
+    // 이미 있으면 0건. 중복 키 예외로 알아내면 PostgreSQL 등에서는 호출한 트랜잭션 전체가 중단되어 커밋할 수 없다
+    private static final String INSERT_IF_ABSENT_SQL =
+        "insert into processed_event_table (event_id, event_type, processed_at) select ?, ?, ? " +
+        "where not exists (select 1 from processed_event_table where event_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProcessedEventRepository processedEventRepository;
+    private final int expectedEvents;
+    private final double falsePositiveRate;
+    private final long retentionMillis;
+    private final Map<String, Boolean> recent;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    @Autowired
+    public EventDeduplicator(
+        JdbcTemplate jdbcTemplate,
+        ProcessedEventRepository processedEventRepository,
+        @Value("${point.dedup.recent-size:100000}") int recentSize,
+        @Value("${point.dedup.expected-events:10000000}") int expectedEvents,
+        @Value("${point.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+        @Value("${point.dedup.retention-hours:168}") long retentionHours
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.processedEventRepository = processedEventRepository;
+        this.expectedEvents = expectedEvents;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retentionMillis = retentionHours * 60 * 60 * 1000;
+        this.recent = Collections.synchronizedMap(
+            new LinkedHashMap<String, Boolean>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > recentSize;
+                }
+            }
+        );
+        this.current = new BloomFilter(expectedEvents, falsePositiveRate);
+        this.previous = new BloomFilter(1, falsePositiveRate);
+    }
+
+    // 처음 보는 이벤트이면 현재 트랜잭션에 처리 기록을 남기고 true, 이미 반영된 이벤트이면 false
+    public boolean markProcessed(String eventType, String eventId) {
+        if (eventId == null) {
+            logger.warn("EventDeduplicator: 이벤트 id 가 없어 중복 확인 없이 처리: type={}", eventType);
+            return true;
+        }
+        String key = eventType + ":" + eventId;
+
+        if (recent.containsKey(key)) {
+            return false;
+        }
+        if (mightContain(key) && processedEventRepository.existsById(key)) {
+            rememberAfterCommit(key);
+            return false;
+        }
+        // 다른 트랜잭션이 같은 id 를 동시에 기록 중이면 그쪽 커밋 후 중복 키 예외가 난다. 잡지 않고 트랜잭션을 롤백시킨다:
+        // 재전달되면 커밋된 기록을 보고 false 가 된다
+        if (jdbcTemplate.update(INSERT_IF_ABSENT_SQL, key, eventType, System.currentTimeMillis(), key) == 0) {
+            rememberAfterCommit(key);
+            return false;
+        }
+        put(key);
+        rememberAfterCommit(key);
+        return true;
+    }
+
+    // 이 서비스가 직접 반영하고 발행하는 새 이벤트 id 를 처리 완료로 일괄 기록 (자기 이벤트 재소비 시 건너뜀)
+    public void recordProcessed(String eventType, List<String> eventIds) {
+        long now = System.currentTimeMillis();
+        List<Object[]> args = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            String key = eventType + ":" + eventId;
+            args.add(new Object[] { key, eventType, now });
+            put(key);
+            rememberAfterCommit(key);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    @Scheduled(cron = "${point.dedup.prune-cron:0 0 * * * *}")
+    @Transactional
+    public void prune() {
+        int deleted = processedEventRepository.deleteProcessedBefore(System.currentTimeMillis() - retentionMillis);
+        logger.info("EventDeduplicator: 보존 기간이 지난 처리 기록 {}건 삭제", deleted);
+    }
+
+    private boolean mightContain(String key) {
+        return current.mightContain(key) || previous.mightContain(key);
+    }
+
+    private void put(String key) {
+        if (current.put(key) >= expectedEvents) {
+            synchronized (this) {
+                if (current.size() >= expectedEvents) {
+                    previous = current;
+                    current = new BloomFilter(expectedEvents, falsePositiveRate);
+                }
+            }
+        }
+    }
+
+    // LRU 는 커밋된 기록만 담아야 롤백된 이벤트의 재전달을 중복으로 오인하지 않는다
+    private void rememberAfterCommit(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recent.put(key, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    recent.put(key, Boolean.TRUE);
+                }
+            }
+        );
+    }
+
+    // 크기가 고정된 블룸 필터 (Kirsch-Mitzenmacher 이중 해싱)
+    static class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicInteger size = new AtomicInteger();
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        int put(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                long mask = 1L << index;
+                int word = (int) (index >>> 6);
+                long old;
+                do {
+                    old = bits.get(word);
+                } while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask));
+            }
+            return size.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        // FNV-1a 64bit + murmur3 finalizer
+        private static long hash64(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
+//>>> EDA / Idempotent Consumer
@@ -0,0 +1,26 @@
+package miniprojectjo.infra;
+
+import java.nio.charset.StandardCharsets;
+
+// 수신 메시지의 헤더/페이로드 값을 문자열로 읽는 도우미 (PolicyHandler, PolicyBatchHandler 공용)
+final class EventHeaders {
+
+    static final String TYPE = "type";
+
+    private EventHeaders() {}
+
+    // 헤더 매퍼를 거치지 않은 경우 byte[] 또는 JSON 문자열("PointBought") 형태로 들어올 수 있음
+    static String type(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String type = asString(value);
+        return type.startsWith("\"") ? type.substring(1, type.length() - 1) : type;
+    }
+
+    static String asString(Object value) {
+        return value instanceof byte[]
+            ? new String((byte[]) value, StandardCharsets.UTF_8)
+            : String.valueOf(value);
+    }
+}
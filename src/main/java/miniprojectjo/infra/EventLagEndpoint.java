@@ -0,0 +1,70 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+//<<< Observability / Event Lag
+// GET /actuator/eventlag
+// 이벤트 타입별 생성→반영 지연(p50/p99/max, SLO 위반 여부)과 소비가 얼마나 밀려 있는지를 보여준다.
+// unconsumedRecords 는 Kafka 바인더의 spring.cloud.stream.binder.kafka.offset 게이지 합 (바인더가 없으면 null)
+@Component
+@Endpoint(id = "eventlag")
+public class EventLagEndpoint {
+
+    private static final String OFFSET_LAG_METRIC = "spring.cloud.stream.binder.kafka.offset";
+
+    private final EventLagTracker eventLagTracker;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public EventLagEndpoint(EventLagTracker eventLagTracker, MeterRegistry meterRegistry) {
+        this.eventLagTracker = eventLagTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> eventLag() {
+        Map<String, EventLagTracker.LagSnapshot> types = eventLagTracker.snapshot();
+
+        long lastAppliedAt = 0L;
+        long lastLagMillis = 0L;
+        boolean sloBreached = false;
+        for (EventLagTracker.LagSnapshot snapshot : types.values()) {
+            if (snapshot.getLastAppliedAt() > lastAppliedAt) {
+                lastAppliedAt = snapshot.getLastAppliedAt();
+                lastLagMillis = snapshot.getLastLagMillis();
+            }
+            sloBreached |= snapshot.isSloBreached();
+        }
+
+        Map<String, Object> behind = new LinkedHashMap<>();
+        behind.put("lastLagMillis", lastLagMillis);
+        behind.put("sinceLastAppliedMillis", lastAppliedAt == 0L ? null : System.currentTimeMillis() - lastAppliedAt);
+        behind.put("unconsumedRecords", unconsumedRecords());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sloMillis", eventLagTracker.getSlo().toMillis());
+        body.put("sloBreached", sloBreached);
+        body.put("behind", behind);
+        body.put("types", types);
+        return body;
+    }
+
+    private Long unconsumedRecords() {
+        Double total = null;
+        for (Gauge gauge : meterRegistry.find(OFFSET_LAG_METRIC).gauges()) {
+            double value = gauge.value();
+            if (!Double.isNaN(value)) {
+                total = (total == null ? 0.0 : total) + value;
+            }
+        }
+        return total == null ? null : total.longValue();
+    }
+}
+//>>> Observability / Event Lag
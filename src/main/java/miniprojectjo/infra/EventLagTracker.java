@@ -0,0 +1,142 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//<<< Observability / Event Lag
+// 이벤트 생성 시각(AbstractEvent.timestamp)부터 이 서비스에서 반영이 커밋될 때까지의 지연 (eventual consistency 지연).
+// - point.events.lag{type} 타이머: Prometheus 히스토그램 + SLO 버킷 (le=point.lag.slo-ms 버킷으로 SLO 위반 비율 알림)
+// - /actuator/eventlag 의 p50/p99/max 는 최근 point.lag.window-seconds 구간에서 계산한다 (rolling window)
+// 생산자 시계를 기준으로 하므로 노드 간 시계 차이만큼 치우칠 수 있다 (음수는 0 으로 기록).
+@Component
+public class EventLagTracker {
+
+    private static final double[] PERCENTILES = { 0.5, 0.99 };
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slo;
+    private final Duration window;
+    private final Map<String, TypeLag> lags = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EventLagTracker(
+        MeterRegistry meterRegistry,
+        @Value("${point.lag.slo-ms:5000}") long sloMillis,
+        @Value("${point.lag.window-seconds:60}") long windowSeconds
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.slo = Duration.ofMillis(sloMillis);
+        this.window = Duration.ofSeconds(windowSeconds);
+    }
+
+    // 현재 트랜잭션이 있으면 커밋된 뒤에, 없으면 바로 기록한다 (롤백된 반영은 기록하지 않는다)
+    public void record(String type, AbstractEvent event) {
+        Long timestamp = event.getTimestamp();
+        if (timestamp == null) {
+            return;
+        }
+        TypeLag lag = lags.computeIfAbsent(type, this::register);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    lag.record(timestamp);
+                }
+            });
+        } else {
+            lag.record(timestamp);
+        }
+    }
+
+    public Duration getSlo() {
+        return slo;
+    }
+
+    public Map<String, LagSnapshot> snapshot() {
+        Map<String, LagSnapshot> snapshots = new TreeMap<>();
+        lags.forEach((type, lag) -> snapshots.put(type, lag.snapshot(slo)));
+        return snapshots;
+    }
+
+    private TypeLag register(String type) {
+        Timer timer = Timer.builder("point.events.lag")
+            .description("이벤트 생성부터 반영 커밋까지의 지연")
+            .tag("type", type)
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .serviceLevelObjectives(slo)
+            .distributionStatisticExpiry(window)
+            .distributionStatisticBufferLength(3)
+            .register(meterRegistry);
+        return new TypeLag(timer);
+    }
+
+    private static final class TypeLag {
+
+        private final Timer timer;
+        private volatile long lastLagMillis;
+        private volatile long lastAppliedAt;
+
+        TypeLag(Timer timer) {
+            this.timer = timer;
+        }
+
+        void record(long timestamp) {
+            long now = System.currentTimeMillis();
+            long lagMillis = Math.max(0L, now - timestamp);
+            timer.record(lagMillis, TimeUnit.MILLISECONDS);
+            lastLagMillis = lagMillis;
+            lastAppliedAt = now;
+        }
+
+        LagSnapshot snapshot(Duration slo) {
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            LagSnapshot snapshot = new LagSnapshot();
+            snapshot.count = histogram.count();
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    snapshot.p50Millis = percentile.value(TimeUnit.MILLISECONDS);
+                } else if (percentile.percentile() == 0.99) {
+                    snapshot.p99Millis = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            snapshot.maxMillis = histogram.max(TimeUnit.MILLISECONDS);
+            snapshot.lastLagMillis = lastLagMillis;
+            snapshot.lastAppliedAt = lastAppliedAt;
+            snapshot.sloBreached = snapshot.p99Millis > slo.toMillis();
+            return snapshot;
+        }
+    }
+
+    // 이벤트 타입별 지연 (p50/p99/max 는 최근 구간, count 는 누적)
+    public static class LagSnapshot {
+        private long count;
+        private double p50Millis;
+        private double p99Millis;
+        private double maxMillis;
+        private long lastLagMillis;
+        private long lastAppliedAt;
+        private boolean sloBreached;
+
+        public long getCount() { return count; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+        public long getLastLagMillis() { return lastLagMillis; }
+        public long getLastAppliedAt() { return lastAppliedAt; }
+        public boolean isSloBreached() { return sloBreached; }
+    }
+}
+//>>> Observability / Event Lag
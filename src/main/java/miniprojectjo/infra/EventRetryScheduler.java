@@ -0,0 +1,238 @@
+package miniprojectjo.infra;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import miniprojectjo.config.kafka.KafkaProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+//<<< EDA / Retry & Dead Letter
+// 처리에 실패한 수신 이벤트를 소비 스레드를 막지 않고 지연 재시도한 뒤, 끝내 실패하면 DLQ(event-dlq)로 보낸다.
+// - 지연: point.retry.initial-delay-ms × multiplier^(시도-1), 최대 max-delay-ms, ±20% 지터. 시도 횟수는 x-retry-attempt 헤더로 전달된다.
+// - 역직렬화 실패(MessageConversionException)는 다시 해도 같으므로 바로 DLQ 로 보낸다.
+// - 대기 중인 재시도가 point.retry.max-pending 을 넘으면 새 실패는 바로 DLQ 로 보낸다 (메모리 상한).
+// - DLQ 메시지는 원본 페이로드/type/contentType/키에 실패 정보 헤더(x-exception-*, x-original-*, x-dead-letter-reason)를 붙인다.
+// 재시도는 메모리 큐에서 기다리므로, 종료 시(바인딩 출력이 닫히기 전) 대기 중인 재시도를 DLQ 로 옮긴다.
+// 재시도된 이벤트는 같은 사용자의 뒤 이벤트보다 늦게 반영될 수 있다.
+@Component
+public class EventRetryScheduler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventRetryScheduler.class);
+
+    public static final String ATTEMPT = "x-retry-attempt";
+    public static final String EXCEPTION_CLASS = "x-exception-fqcn";
+    public static final String EXCEPTION_MESSAGE = "x-exception-message";
+    public static final String EXCEPTION_STACKTRACE = "x-exception-stacktrace";
+    public static final String ORIGINAL_TOPIC = "x-original-topic";
+    public static final String ORIGINAL_PARTITION = "x-original-partition";
+    public static final String ORIGINAL_OFFSET = "x-original-offset";
+    public static final String FAILED_AT = "x-failed-at";
+    public static final String REASON = "x-dead-letter-reason";
+
+    private static final int STACKTRACE_LIMIT = 4000;
+
+    private final MessageChannel deadLetterChannel;
+    private final PointMetrics pointMetrics;
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final double multiplier;
+    private final long maxDelayMillis;
+    private final int maxPending;
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, PendingRetry> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean running;
+
+    @Autowired
+    public EventRetryScheduler(
+        KafkaProcessor kafkaProcessor,
+        PointMetrics pointMetrics,
+        @Value("${point.retry.max-attempts:4}") int maxAttempts,
+        @Value("${point.retry.initial-delay-ms:1000}") long initialDelayMillis,
+        @Value("${point.retry.multiplier:5}") double multiplier,
+        @Value("${point.retry.max-delay-ms:60000}") long maxDelayMillis,
+        @Value("${point.retry.max-pending:10000}") int maxPending,
+        @Value("${point.retry.threads:2}") int threads
+    ) {
+        this.deadLetterChannel = kafkaProcessor.deadLetterTopic();
+        this.pointMetrics = pointMetrics;
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPending = maxPending;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "point-retry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // 실패한 메시지를 지연 후 redispatch 로 다시 처리하거나, 더 시도할 수 없으면 DLQ 로 보낸다
+    public void retryOrDeadLetter(Message<?> message, String type, Throwable error, Consumer<Message<?>> redispatch) {
+        int attempt = attemptOf(message);
+        if (error instanceof MessageConversionException) {
+            deadLetter(message, type, error, attempt, "not_retryable");
+            return;
+        }
+        if (attempt >= maxAttempts) {
+            deadLetter(message, type, error, attempt, "exhausted");
+            return;
+        }
+        if (!running || pending.size() >= maxPending) {
+            deadLetter(message, type, error, attempt, running ? "retry_queue_full" : "shutdown");
+            return;
+        }
+        long delayMillis = delayMillis(attempt);
+        Message<?> next = MessageBuilder.fromMessage(message).setHeader(ATTEMPT, attempt + 1).build();
+        long id = sequence.incrementAndGet();
+        pending.put(id, new PendingRetry(message, type, error, attempt));
+        scheduler.schedule(() -> {
+            if (pending.remove(id) != null) {
+                redispatch.accept(next);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        pointMetrics.eventRetried(type);
+        logger.warn("EventRetryScheduler: {} 처리 실패 - {}ms 후 재시도 ({}/{}): {}", type, delayMillis, attempt + 1, maxAttempts, error.getMessage());
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public static int attemptOf(Message<?> message) {
+        Object attempt = message.getHeaders().get(ATTEMPT);
+        if (attempt instanceof Number) {
+            return ((Number) attempt).intValue();
+        }
+        if (attempt != null) {
+            try {
+                return Integer.parseInt(EventHeaders.asString(attempt).trim());
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+        return 1;
+    }
+
+    private long delayMillis(int attempt) {
+        double delay = Math.min(maxDelayMillis, initialDelayMillis * Math.pow(multiplier, attempt - 1));
+        return (long) (delay * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+    }
+
+    private void deadLetter(Message<?> message, String type, Throwable error, int attempt, String reason) {
+        MessageHeaders headers = message.getHeaders();
+        MessageBuilder<?> deadLetter = MessageBuilder.withPayload(message.getPayload())
+            .setHeader(EventHeaders.TYPE, type)
+            .setHeader(ATTEMPT, attempt)
+            .setHeader(REASON, reason)
+            .setHeader(FAILED_AT, System.currentTimeMillis())
+            .setHeader(EXCEPTION_CLASS, error.getClass().getName())
+            .setHeader(EXCEPTION_MESSAGE, String.valueOf(error.getMessage()))
+            .setHeader(EXCEPTION_STACKTRACE, stackTrace(error));
+        if (headers.get(MessageHeaders.CONTENT_TYPE) != null) {
+            deadLetter.setHeader(MessageHeaders.CONTENT_TYPE, EventHeaders.asString(headers.get(MessageHeaders.CONTENT_TYPE)));
+        }
+        Object key = headers.get(KafkaHeaders.RECEIVED_MESSAGE_KEY);
+        if (key != null) {
+            deadLetter.setHeader(KafkaHeaders.MESSAGE_KEY, EventHeaders.asString(key));
+        }
+        // 재시도/재주입된 메시지는 처음 받은 위치를 그대로 유지한다
+        deadLetter.setHeader(ORIGINAL_TOPIC, originalHeader(headers, ORIGINAL_TOPIC, KafkaHeaders.RECEIVED_TOPIC));
+        deadLetter.setHeader(ORIGINAL_PARTITION, originalHeader(headers, ORIGINAL_PARTITION, KafkaHeaders.RECEIVED_PARTITION_ID));
+        deadLetter.setHeader(ORIGINAL_OFFSET, originalHeader(headers, ORIGINAL_OFFSET, KafkaHeaders.OFFSET));
+
+        try {
+            deadLetterChannel.send(deadLetter.build());
+            pointMetrics.eventDeadLettered(type, reason);
+            logger.error("EventRetryScheduler: {} 이벤트를 DLQ 로 보냄 (reason={}, attempts={}): {}", type, reason, attempt, error.getMessage());
+        } catch (RuntimeException e) {
+            // 수신 스레드에서는 바인더 재시도로 넘어가고, 재시도 스레드에서는 로그로만 남는다
+            logger.error("EventRetryScheduler: DLQ 발행 실패 - type={}, payload={}", type, EventHeaders.asString(message.getPayload()), e);
+            throw e;
+        }
+    }
+
+    private static String originalHeader(MessageHeaders headers, String original, String received) {
+        Object value = headers.get(original) != null ? headers.get(original) : headers.get(received);
+        return value == null ? null : EventHeaders.asString(value);
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter writer = new StringWriter();
+        error.printStackTrace(new PrintWriter(writer));
+        String trace = writer.toString();
+        return trace.length() > STACKTRACE_LIMIT ? trace.substring(0, STACKTRACE_LIMIT) : trace;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // 입력 바인딩이 멈춘 뒤, 출력 바인딩이 닫히기 전에 대기 중인 재시도를 DLQ 로 옮긴다
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        for (Long id : pending.keySet()) {
+            PendingRetry retry = pending.remove(id);
+            if (retry == null) {
+                continue;
+            }
+            try {
+                deadLetter(retry.message, retry.type, retry.error, retry.attempt, "shutdown");
+            } catch (RuntimeException e) {
+                // deadLetter 에서 이미 로그를 남겼다
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 입력 바인딩(Integer.MAX_VALUE - 1000)보다 늦게 시작/먼저 멈추지 않고, 출력 바인딩(Integer.MIN_VALUE + 1000)보다는 먼저 멈춘다
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static final class PendingRetry {
+
+        private final Message<?> message;
+        private final String type;
+        private final Throwable error;
+        private final int attempt;
+
+        PendingRetry(Message<?> message, String type, Throwable error, int attempt) {
+            this.message = message;
+            this.type = type;
+            this.error = error;
+            this.attempt = attempt;
+        }
+    }
+}
+//>>> EDA / Retry & Dead Letter
@@ -0,0 +1,96 @@
+package miniprojectjo.infra;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//<<< Concurrency / Hashed Timer Wheel
+// 포인트 예약(PointHold) 만료 시각을 담는 해시 타이머 휠. 등록/취소는 O(1), 틱마다 해당 칸만 본다.
+// - 칸 = 만료 틱 % 칸 수. 한 바퀴보다 먼 만료는 같은 칸에 남아 있다가 만료 틱이 지난 뒤에 꺼낸다
+// - 틱이 밀려 한 바퀴 이상 건너뛰면 모든 칸을 한 번 본다
+// 스레드 안전 (메서드 단위 synchronized). 메모리에만 있으므로 재기동/다른 인스턴스의 예약은 PointHolds.expireOverdue 가 처리한다.
+class HoldExpiryWheel {
+
+    private final long tickMillis;
+    private final List<Map<String, Entry>> buckets;
+    private final Map<String, Entry> entries = new HashMap<>();
+    // 마지막으로 처리한 틱
+    private long currentTick;
+
+    HoldExpiryWheel(long tickMillis, int size, long now) {
+        if (tickMillis <= 0 || size <= 0) {
+            throw new IllegalArgumentException("point.hold.tick-ms, point.hold.wheel-size 는 0보다 커야 합니다.");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new LinkedHashMap<>());
+        }
+        this.currentTick = now / tickMillis;
+    }
+
+    // 이미 지난 만료 시각은 다음 틱에 꺼낸다. 같은 예약을 다시 등록하면 만료 시각을 바꾼다.
+    synchronized void schedule(String holdId, String userId, long expiresAt) {
+        cancel(holdId);
+        long deadline = Math.max((expiresAt + tickMillis - 1) / tickMillis, currentTick + 1);
+        Entry entry = new Entry(holdId, userId, expiresAt, deadline);
+        entries.put(holdId, entry);
+        bucket(deadline).put(holdId, entry);
+    }
+
+    synchronized boolean cancel(String holdId) {
+        Entry entry = entries.remove(holdId);
+        if (entry == null) {
+            return false;
+        }
+        bucket(entry.deadline).remove(holdId);
+        return true;
+    }
+
+    // now 까지의 틱을 진행하고 만료된 항목을 꺼낸다 (꺼낸 항목은 휠에서 빠진다)
+    synchronized List<Entry> advance(long now) {
+        long target = now / tickMillis;
+        List<Entry> due = new ArrayList<>();
+        long ticks = Math.min(target - currentTick, buckets.size());
+        for (long i = 1; i <= ticks; i++) {
+            Iterator<Entry> iterator = bucket(currentTick + i).values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.deadline <= target) {
+                    iterator.remove();
+                    entries.remove(entry.holdId);
+                    due.add(entry);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+        return due;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private Map<String, Entry> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+
+    static final class Entry {
+
+        final String holdId;
+        final String userId;
+        final long expiresAt;
+        final long deadline;
+
+        Entry(String holdId, String userId, long expiresAt, long deadline) {
+            this.holdId = holdId;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.deadline = deadline;
+        }
+    }
+}
+//>>> Concurrency / Hashed Timer Wheel
@@ -0,0 +1,319 @@
+package miniprojectjo.infra;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import miniprojectjo.PointApplication;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.PointShard;
+import miniprojectjo.domain.PointShardRepository;
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< Concurrency / Hot Account Shards
+// 충전이 몰리는 계정(법인 포인트 풀, 프로모션 지갑 등)의 잔액을 분할 행(PointShard) 여러 개로 나눈다.
+// - 충전: 분할 행 중 하나를 골라 더한다. 이벤트 소비도 userId#분할 키로 여러 스트라이프에 나눠 실행한다 (mutationKey, 소비 스레드는 기다리지 않는다 - PolicyHandler)
+// - 차감: Point 에서 먼저 빼고, 모자라면 분할 행을 잠가 Point 로 모은 뒤 다시 시도한다 (sweep)
+// - 조회: Point + 분할 행 합계. 분할 합계는 point.hot.aggregate-ttl-ms 동안 캐시한다 (0 이면 매번 합산).
+//   이 인스턴스의 충전/차감은 커밋 후 캐시를 지우므로, TTL 은 다른 인스턴스의 변경이 늦게 보이는 한도다
+// - 승격/강등: point.hot.window-ms 구간마다 계정별 충전 건수를 보고, 초당 promote-credits-per-second 이상이면 승격,
+//   demote-credits-per-second 미만인 구간이 quiet-windows 번 이어지면 분할 행을 Point 로 모으고 강등한다.
+// hot 계정 여부는 Point.shards 에 남으므로 다른 인스턴스도 같은 계정을 분할 행으로 읽는다.
+// 이 인스턴스가 아직 모르는 hot 계정(구간마다 DB 에서 다시 읽음)이나 강등된 계정에 들어온 충전은 Point 에 반영된다 (잔액은 그대로 맞다).
+@Component
+public class HotAccounts {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotAccounts.class);
+
+    private final PointRepository pointRepository;
+    private final PointShardRepository pointShardRepository;
+    private final PointBalanceCache pointBalanceCache;
+    private final PointMutationExecutor pointMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int shardCount;
+    private final long windowMillis;
+    private final long promoteCreditsPerSecond;
+    private final long demoteCreditsPerSecond;
+    private final int quietWindows;
+    private final Cache<UserId, Long> shardTotals;
+    private final Counter promoted;
+    private final Counter demoted;
+
+    // userId → 분할 행 수
+    private final Map<String, Integer> sharded = new ConcurrentHashMap<>();
+    // 현재 구간의 계정별 충전 건수
+    private volatile Map<String, LongAdder> credits = new ConcurrentHashMap<>();
+    // hot 계정별로 충전이 적었던 구간이 연속 몇 번인지
+    private final Map<String, Integer> quiet = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HotAccounts(
+        PointRepository pointRepository,
+        PointShardRepository pointShardRepository,
+        PointBalanceCache pointBalanceCache,
+        PointMutationExecutor pointMutationExecutor,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${point.hot.enabled:true}") boolean enabled,
+        @Value("${point.hot.shards:8}") int shardCount,
+        @Value("${point.hot.window-ms:10000}") long windowMillis,
+        @Value("${point.hot.promote-credits-per-second:200}") long promoteCreditsPerSecond,
+        @Value("${point.hot.demote-credits-per-second:20}") long demoteCreditsPerSecond,
+        @Value("${point.hot.quiet-windows:6}") int quietWindows,
+        @Value("${point.hot.aggregate-ttl-ms:1000}") long aggregateTtlMillis
+    ) {
+        if (shardCount <= 1) {
+            throw new IllegalArgumentException("point.hot.shards 는 1보다 커야 합니다.");
+        }
+        this.pointRepository = pointRepository;
+        this.pointShardRepository = pointShardRepository;
+        this.pointBalanceCache = pointBalanceCache;
+        this.pointMutationExecutor = pointMutationExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.shardCount = shardCount;
+        this.windowMillis = windowMillis;
+        this.promoteCreditsPerSecond = promoteCreditsPerSecond;
+        this.demoteCreditsPerSecond = demoteCreditsPerSecond;
+        this.quietWindows = quietWindows;
+        this.shardTotals = aggregateTtlMillis > 0
+            ? Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(Duration.ofMillis(aggregateTtlMillis)).build()
+            : null;
+        this.promoted = Counter.builder("point.hot.promoted")
+            .description("hot 계정으로 승격된 계정 수")
+            .register(meterRegistry);
+        this.demoted = Counter.builder("point.hot.demoted")
+            .description("hot 계정에서 강등된 계정 수")
+            .register(meterRegistry);
+        Gauge.builder("point.hot.accounts", sharded, Map::size)
+            .description("이 인스턴스가 알고 있는 hot 계정 수")
+            .register(meterRegistry);
+    }
+
+    public static HotAccounts instance() {
+        return PointApplication.applicationContext.getBean(HotAccounts.class);
+    }
+
+    // --- 충전 ---
+
+    public void recordCredit(UserId userId) {
+        if (enabled && userId != null && userId.getValue() != null) {
+            credits.computeIfAbsent(userId.getValue(), key -> new LongAdder()).increment();
+        }
+    }
+
+    // 스트라이프 키: hot 계정의 충전은 분할 수만큼 여러 스트라이프로 나눠 실행한다 (충전끼리는 순서가 상관없다)
+    public String mutationKey(String userId) {
+        Integer shards = userId == null ? null : sharded.get(userId);
+        return shards == null ? userId : userId + "#" + ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    // hot 계정이면 분할 행 하나에 더하고 true. 아니면(또는 그 사이 강등되어 분할 행이 없으면) false → 호출한 쪽이 Point 에 반영
+    public boolean creditShard(UserId userId, int amount) {
+        Integer shards = userId == null ? null : sharded.get(userId.getValue());
+        if (shards == null) {
+            return false;
+        }
+        if (pointShardRepository.increaseShard(userId, ThreadLocalRandom.current().nextInt(shards), amount) == 0) {
+            return false;
+        }
+        evictShardTotal(userId);
+        return true;
+    }
+
+    // --- 차감 ---
+
+    // 분할 행 잔액을 잠가 Point 로 모은다 (호출한 트랜잭션 안에서). 모은 포인트를 돌려준다.
+    // Point 잔액이 모자랄 때만 부르므로, 이 인스턴스가 모르는 hot 계정이라도 분할 행을 확인한다.
+    public long sweep(UserId userId) {
+        long total = drain(userId);
+        if (total != 0) {
+            pointRepository.increasePoint(userId, Math.toIntExact(total));
+            pointBalanceCache.invalidate(userId);
+        }
+        return total;
+    }
+
+    // 분할 행을 잠가 0 으로 만들고 합계를 돌려준다. 합계는 호출한 쪽이 Point 에 더해야 한다 (대량 처리처럼 Point 를 엔티티로 고칠 때)
+    public long drain(UserId userId) {
+        long total = 0;
+        for (PointShard shard : pointShardRepository.findAllForUpdateByUserId(userId)) {
+            total += shard.getPoint();
+            shard.setPoint(0);
+        }
+        evictShardTotal(userId);
+        return total;
+    }
+
+    // 분할 합계 캐시 무효화. 트랜잭션 중이면 커밋/롤백 이후에 한 번 더 지운다 (PointBalanceCache.invalidate 와 같은 방식):
+    // 커밋 전에 다른 스레드가 합산해 넣은 값이 남아 같은 노드에서 쓰기 이후 예전 잔액이 보이는 일을 막는다.
+    // 합산 중인 키를 지우면 Caffeine 이 합산이 끝날 때까지 기다렸다가 지운다.
+    private void evictShardTotal(UserId userId) {
+        if (shardTotals == null) {
+            return;
+        }
+        shardTotals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        shardTotals.invalidate(userId);
+                    }
+                }
+            );
+        }
+    }
+
+    // --- 조회 ---
+
+    // 조회용 잔액 (분할 합계는 캐시를 거친다)
+    public int balanceOf(Point point) {
+        if (!isSharded(point)) {
+            return point.getPoint();
+        }
+        if (shardTotals == null) {
+            return currentBalanceOf(point);
+        }
+        return Math.toIntExact(point.getPoint() + shardTotals.get(point.getUserId(), pointShardRepository::sumByUserId));
+    }
+
+    // 지금 DB 기준 잔액 (이벤트에 담는 값)
+    public int currentBalanceOf(Point point) {
+        if (!isSharded(point)) {
+            return point.getPoint();
+        }
+        return Math.toIntExact(point.getPoint() + pointShardRepository.sumByUserId(point.getUserId()));
+    }
+
+    // 응답용: hot 계정이면 분할 합계를 더한 복사본 (영속 엔티티를 고치지 않는다)
+    public Point withShards(Point point) {
+        if (!isSharded(point)) {
+            return point;
+        }
+        Point copy = new Point();
+        copy.setId(point.getId());
+        copy.setPoint(balanceOf(point));
+        copy.setIsSubscribe(point.getIsSubscribe());
+        copy.setUserId(point.getUserId());
+        copy.setSubscriptionId(point.getSubscriptionId());
+        copy.setShards(point.getShards());
+        copy.setHeldPoint(point.getHeldPoint());
+        return copy;
+    }
+
+    private static boolean isSharded(Point point) {
+        return point.getShards() != null && point.getShards() > 0 && point.getUserId() != null;
+    }
+
+    // --- 승격/강등 ---
+
+    @Scheduled(
+        initialDelayString = "${point.hot.window-ms:10000}",
+        fixedDelayString = "${point.hot.window-ms:10000}"
+    )
+    public void evaluate() {
+        Map<String, LongAdder> window = credits;
+        credits = new ConcurrentHashMap<>();
+        try {
+            refresh();
+            if (!enabled) {
+                return;
+            }
+            for (Map.Entry<String, LongAdder> entry : window.entrySet()) {
+                if (!sharded.containsKey(entry.getKey()) && entry.getValue().sum() * 1000 >= promoteCreditsPerSecond * windowMillis) {
+                    promote(new UserId(entry.getKey()));
+                }
+            }
+            for (String userId : new ArrayList<>(sharded.keySet())) {
+                LongAdder count = window.get(userId);
+                if (count != null && count.sum() * 1000 >= demoteCreditsPerSecond * windowMillis) {
+                    quiet.remove(userId);
+                } else if (quiet.merge(userId, 1, Integer::sum) >= quietWindows) {
+                    demote(new UserId(userId));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("HotAccounts: 승격/강등 판단 중 오류 (다음 구간에 재시도): {}", e.getMessage(), e);
+        }
+    }
+
+    // 다른 인스턴스가 승격/강등한 계정 반영
+    public void refresh() {
+        Map<String, Integer> current = new ConcurrentHashMap<>();
+        for (Object[] row : pointRepository.findSharded()) {
+            current.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        sharded.keySet().retainAll(current.keySet());
+        sharded.putAll(current);
+        quiet.keySet().retainAll(current.keySet());
+    }
+
+    // 같은 사용자의 차감과 겹치지 않도록 userId 스트라이프에서 실행한다
+    public boolean promote(UserId userId) {
+        Boolean changed = pointMutationExecutor.callBlocking(userId.getValue(), () -> transactionTemplate.execute(status -> {
+            if (pointRepository.promoteShards(userId, shardCount) == 0) {
+                return false;
+            }
+            List<PointShard> shards = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                shards.add(new PointShard(userId, shard));
+            }
+            pointShardRepository.saveAll(shards);
+            pointBalanceCache.invalidate(userId);
+            return true;
+        }));
+        if (Boolean.TRUE.equals(changed)) {
+            sharded.put(userId.getValue(), shardCount);
+            promoted.increment();
+            logger.info("HotAccounts: hot 계정으로 승격 - userId={}, shards={}", userId.getValue(), shardCount);
+        }
+        return Boolean.TRUE.equals(changed);
+    }
+
+    public boolean demote(UserId userId) {
+        // 먼저 빼서 이 인스턴스의 새 충전은 Point 로 가게 한다
+        sharded.remove(userId.getValue());
+        quiet.remove(userId.getValue());
+        Long total = pointMutationExecutor.callBlocking(userId.getValue(), () -> transactionTemplate.execute(status -> {
+            List<PointShard> shards = pointShardRepository.findAllForUpdateByUserId(userId);
+            long sum = 0;
+            for (PointShard shard : shards) {
+                sum += shard.getPoint();
+            }
+            pointShardRepository.deleteAll(shards);
+            if (sum != 0) {
+                pointRepository.increasePoint(userId, Math.toIntExact(sum));
+            }
+            pointRepository.clearShards(userId);
+            pointBalanceCache.invalidate(userId);
+            return sum;
+        }));
+        if (shardTotals != null) {
+            shardTotals.invalidate(userId);
+        }
+        demoted.increment();
+        logger.info("HotAccounts: hot 계정에서 강등 - userId={}, 모은 포인트={}", userId.getValue(), total);
+        return true;
+    }
+}
+//>>> Concurrency / Hot Account Shards
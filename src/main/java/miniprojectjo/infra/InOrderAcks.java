@@ -0,0 +1,66 @@
+package miniprojectjo.infra;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.kafka.support.Acknowledgment;
+
+//<<< Concurrency / In-Order Acknowledgment
+// 소비 스레드 하나가 넘긴 메시지들의 ack 를 받은 순서대로 보낸다 (PolicyHandler, 수동 커밋 모드).
+// 뒤 메시지가 먼저 끝나도 앞 메시지가 끝날 때까지 ack 하지 않는다 — 컨테이너는 ack 받은 가장 큰 오프셋을 커밋하므로,
+// 순서를 지키지 않으면 아직 반영되지 않은 앞 메시지의 오프셋까지 커밋된다.
+// 끝난 작업의 스레드(스트라이프)에서 ack 해도 된다: 컨테이너가 모아 두었다가 소비 스레드에서 커밋한다.
+final class InOrderAcks {
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+
+    // done 은 실패해도 정상 완료되어야 한다 (실패 처리는 재시도/DLQ 로 넘긴 뒤 ack)
+    void add(CompletableFuture<?> done, Acknowledgment acknowledgment) {
+        synchronized (this) {
+            pending.addLast(new Pending(done, acknowledgment));
+        }
+        done.whenComplete((result, error) -> drain());
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    // 넘긴 작업이 limit 개 미만이 될 때까지 기다린다 (0 이면 모두)
+    void awaitBelow(int limit) {
+        while (true) {
+            CompletableFuture<?> head;
+            synchronized (this) {
+                if (pending.size() <= Math.max(0, limit - 1)) {
+                    return;
+                }
+                head = pending.peekFirst().done;
+            }
+            head.join();
+            drain();
+        }
+    }
+
+    void awaitAll() {
+        awaitBelow(0);
+    }
+
+    // 앞에서부터 끝난 것만 ack
+    private synchronized void drain() {
+        while (!pending.isEmpty() && pending.peekFirst().done.isDone()) {
+            pending.pollFirst().acknowledgment.acknowledge();
+        }
+    }
+
+    private static final class Pending {
+
+        final CompletableFuture<?> done;
+        final Acknowledgment acknowledgment;
+
+        Pending(CompletableFuture<?> done, Acknowledgment acknowledgment) {
+            this.done = done;
+            this.acknowledgment = acknowledgment;
+        }
+    }
+}
+//>>> Concurrency / In-Order Acknowledgment
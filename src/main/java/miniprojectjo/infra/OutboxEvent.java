@@ -0,0 +1,48 @@
+package miniprojectjo.infra;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import miniprojectjo.PointApplication;
+import org.springframework.util.MimeType;
+
+//<<< EDA / Transactional Outbox
+// 발행 대기 이벤트. 도메인 변경과 같은 트랜잭션에 기록되고 OutboxRelay 가 순서대로 발행한 뒤 삭제한다.
+@Entity
+@Table(name = "Outbox_table")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private String eventType;
+
+    // Kafka 메시지 키 (AbstractEvent.getMessageKey)
+    private String messageKey;
+
+    // 발행 포맷 (application/json 또는 EventCodec.BINARY)
+    private String contentType;
+
+    @Lob
+    private byte[] payload;
+
+    private Long createdAt;
+
+    public OutboxEvent(AbstractEvent event) {
+        this.eventType = event.getEventType();
+        this.messageKey = event.getMessageKey();
+        MimeType contentType = EventCodec.instance().contentTypeOf(event);
+        this.contentType = contentType.toString();
+        this.payload = EventCodec.encode(event, contentType);
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public static OutboxEventRepository repository() {
+        return PointApplication.applicationContext.getBean(OutboxEventRepository.class);
+    }
+}
+//>>> EDA / Transactional Outbox
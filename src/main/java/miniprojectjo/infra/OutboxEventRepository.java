@@ -0,0 +1,27 @@
+package miniprojectjo.infra;
+
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource(exported = false)
+public interface OutboxEventRepository
+    extends CrudRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+
+    // 릴레이용: 앞쪽 배치를 행 잠금(select ... for update)으로 읽는다.
+    // 다른 인스턴스의 릴레이는 먼저 잡은 쪽이 커밋(삭제)할 때까지 기다리므로 같은 이벤트를 두 번 보내거나 순서를 바꾸지 않는다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select event from OutboxEvent event order by event.id asc")
+    List<OutboxEvent> lockBatch(Pageable pageable);
+
+    @Modifying
+    @Query("delete from OutboxEvent event where event.id in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,107 @@
+package miniprojectjo.infra;
+
+import java.util.ArrayList;
+import java.util.List;
+import miniprojectjo.config.kafka.KafkaProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeType;
+
+//<<< EDA / Transactional Outbox
+// Outbox_table 을 id 순서대로 배치 단위로 읽어 outboundTopic 으로 발행하고, 발행한 레코드는 삭제한다.
+// event-out 은 동기 발행(producer.sync)이므로 send 는 브로커 확인 뒤에 돌아오고, 실패하면 예외로 트랜잭션이 롤백되어
+// 다음 주기에 같은 순서로 재시도된다 (at-least-once). 확인되지 않은 레코드는 지우지 않는다.
+// 배치는 행 잠금으로 읽으므로 여러 인스턴스에서 켜도 한 번에 한 릴레이만 드레인한다 (point.outbox.relay.enabled 로 끌 수 있다).
+@Component
+@ConditionalOnProperty(name = "point.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageChannel outputChannel;
+    private final TransactionTemplate transactionTemplate;
+    private final PointMetrics pointMetrics;
+    private final int batchSize;
+
+    // 마지막으로 발행한 레코드 id. 이보다 작은 id 가 나타나면 늦게 커밋된 트랜잭션이다.
+    private volatile long highWaterMark = 0L;
+
+    @Autowired
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        KafkaProcessor kafkaProcessor,
+        PlatformTransactionManager transactionManager,
+        PointMetrics pointMetrics,
+        @Value("${point.outbox.relay.batch-size:100}") int batchSize
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outputChannel = kafkaProcessor.outboundTopic();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pointMetrics = pointMetrics;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${point.outbox.relay.interval-ms:100}")
+    public void relay() {
+        try {
+            // 가득 찬 배치가 나오는 동안 계속 드레인
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            logger.error("OutboxRelay: 이벤트 발행 중 오류 발생 (다음 주기에 재시도): {}", e.getMessage(), e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockBatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (event.getId() < highWaterMark) {
+                logger.debug("OutboxRelay: 늦게 커밋된 이벤트 발행: id={}, highWaterMark={}", event.getId(), highWaterMark);
+            }
+            boolean sent = outputChannel.send(
+                MessageBuilder
+                    .withPayload(event.getPayload())
+                    .setHeader(
+                        MessageHeaders.CONTENT_TYPE,
+                        MimeType.valueOf(event.getContentType())
+                    )
+                    .setHeader("type", event.getEventType())
+                    .setHeader(KafkaHeaders.MESSAGE_KEY, event.getMessageKey())
+                    .build()
+            );
+            if (!sent) {
+                throw new IllegalStateException("이벤트 발행 실패: outbox id=" + event.getId());
+            }
+            pointMetrics.eventPublished(event.getEventType());
+            ids.add(event.getId());
+            highWaterMark = Math.max(highWaterMark, event.getId());
+        }
+        outboxEventRepository.deleteByIds(ids);
+        logger.debug("OutboxRelay: {}건 발행 완료, highWaterMark={}", ids.size(), highWaterMark);
+        return events.size();
+    }
+
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+}
+//>>> EDA / Transactional Outbox
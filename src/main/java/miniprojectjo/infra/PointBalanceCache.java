@@ -0,0 +1,144 @@
+package miniprojectjo.infra;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import miniprojectjo.PointApplication;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.UserId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//<<< PoEAA / Read-Through Cache
+// UserId 별 포인트 조회 캐시 (크기/시간 기반 만료, hit/miss/eviction 통계는 actuator 의 cache.* 메트릭으로 노출)
+// 쓰기 경로는 invalidate() 를 호출한다. 무효화 시 세대 번호를 올려, 쓰기 이전에 DB 에서 읽은 값이
+// 무효화 이후에 캐시에 들어가는 경쟁을 막는다 (같은 노드에서 쓰기 이후 오래된 값 조회 불가).
+@Component
+public class PointBalanceCache {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<UserId, Point> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    @Autowired
+    public PointBalanceCache(
+        MeterRegistry meterRegistry,
+        @Value("${point.cache.max-size:100000}") long maxSize,
+        @Value("${point.cache.ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pointByUserId");
+    }
+
+    public static PointBalanceCache instance() {
+        return PointApplication.applicationContext.getBean(PointBalanceCache.class);
+    }
+
+    public Optional<Point> get(UserId userId, Function<UserId, Optional<Point>> loader) {
+        Point cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long generation = generations.get(stripe(userId));
+        Optional<Point> loaded = loader.apply(userId);
+        loaded.ifPresent(point -> {
+            Point snapshot = copyOf(point);
+            // 읽는 동안 무효화가 있었으면 캐시에 넣지 않는다
+            cache.asMap().compute(userId, (key, old) ->
+                generations.get(stripe(key)) == generation ? snapshot : old
+            );
+        });
+        return loaded;
+    }
+
+    // 여러 사용자를 한 번에 조회. 캐시에 없는 사용자만 loader 로 한 번에 읽는다 (없는 사용자는 결과에서 빠짐)
+    public Map<UserId, Point> get(List<UserId> userIds, Function<List<UserId>, List<Point>> loader) {
+        Map<UserId, Point> found = new HashMap<>();
+        List<UserId> missing = new ArrayList<>();
+        Map<UserId, Long> missingGenerations = new HashMap<>();
+        for (UserId userId : userIds) {
+            Point cached = cache.getIfPresent(userId);
+            if (cached != null) {
+                found.put(userId, copyOf(cached));
+            } else {
+                missing.add(userId);
+                missingGenerations.put(userId, generations.get(stripe(userId)));
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        for (Point point : loader.apply(missing)) {
+            UserId userId = point.getUserId();
+            Long generation = missingGenerations.get(userId);
+            Point snapshot = copyOf(point);
+            if (generation != null) {
+                cache.asMap().compute(userId, (key, old) ->
+                    generations.get(stripe(key)) == generation ? snapshot : old
+                );
+            }
+            found.put(userId, point);
+        }
+        return found;
+    }
+
+    // 즉시 무효화하고, 트랜잭션 중이면 커밋/롤백 이후에 한 번 더 무효화한다
+    public void invalidate(UserId userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evict(userId);
+                    }
+                }
+            );
+        }
+    }
+
+    private void evict(UserId userId) {
+        cache.asMap().compute(userId, (key, old) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    private static int stripe(UserId userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    // 캐시에는 영속성 컨텍스트와 분리된 복사본만 보관
+    private static Point copyOf(Point point) {
+        Point copy = new Point();
+        copy.setId(point.getId());
+        copy.setPoint(point.getPoint());
+        copy.setIsSubscribe(point.getIsSubscribe());
+        copy.setUserId(point.getUserId());
+        copy.setSubscriptionId(point.getSubscriptionId());
+        copy.setShards(point.getShards());
+        copy.setHeldPoint(point.getHeldPoint());
+        return copy;
+    }
+}
+//>>> PoEAA / Read-Through Cache
@@ -0,0 +1,349 @@
+package miniprojectjo.infra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import miniprojectjo.domain.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+//<<< Clean Arch / Inbound Adaptor
+// 대량 충전/차감 API. 요청 배열을 토큰 단위로 읽으면서 point.batch-api.chunk-size 건이 모일 때마다 한 트랜잭션에서
+// 1) IN 쿼리 한 번으로 Point 행을 잠그며 조회  2) 메모리에서 요청 순서대로 적용  3) 변경된 Point 는 JDBC 배치 UPDATE,
+// 원장/처리 기록/아웃박스 이벤트는 배치 INSERT 로 기록하고, 그 청크의 결과를 바로 응답에 써서 flush 한다.
+// 요청 전체나 결과 전체를 메모리에 모으지 않는다. 청크는 요청 순서대로 반영하므로 사용자별 적용 순서도 요청 순서와 같다.
+// 한 청크가 실패하면 그 청크의 항목만 FAILED 로 응답한다.
+// (클래스 단위 @Transactional 을 두지 않는다 - 청크마다 별도 트랜잭션)
+@RestController
+@RequestMapping(value = "/points")
+public class PointBatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointBatchController.class);
+
+    private final ObjectReader operationReader;
+    private final ObjectMapper objectMapper;
+    private final PointRepository pointRepository;
+    private final PointLedger pointLedger;
+    private final EventDeduplicator eventDeduplicator;
+    private final TransactionTemplate transactionTemplate;
+    private final PointMetrics pointMetrics;
+    private final HotAccounts hotAccounts;
+    private final PointGrants pointGrants;
+    private final int chunkSize;
+    private final int maxOperations;
+
+    @Autowired
+    public PointBatchController(
+        ObjectMapper objectMapper,
+        PointRepository pointRepository,
+        PointLedger pointLedger,
+        EventDeduplicator eventDeduplicator,
+        PlatformTransactionManager transactionManager,
+        PointMetrics pointMetrics,
+        HotAccounts hotAccounts,
+        PointGrants pointGrants,
+        @Value("${point.batch-api.chunk-size:500}") int chunkSize,
+        @Value("${point.batch-api.max-operations:100000}") int maxOperations
+    ) {
+        this.objectMapper = objectMapper;
+        this.operationReader = objectMapper.readerFor(BatchOperation.class);
+        this.pointRepository = pointRepository;
+        this.pointLedger = pointLedger;
+        this.eventDeduplicator = eventDeduplicator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pointMetrics = pointMetrics;
+        this.hotAccounts = hotAccounts;
+        this.pointGrants = pointGrants;
+        this.chunkSize = chunkSize;
+        this.maxOperations = maxOperations;
+    }
+
+    // 6. 대량 충전/차감 (POST)
+    // 예: POST http://localhost:8084/points/batch
+    //     [{"userId":"u1","type":"CHARGE","amount":100},{"userId":"u2","type":"DEDUCT","amount":30}]
+    // 응답은 요청과 같은 순서의 결과 배열이며 청크마다 흘려 보낸다. 본문 중간에 JSON 오류가 있거나 최대 건수를 넘으면
+    // 그 앞까지 읽은 항목은 반영되고, 마지막 원소(status=INVALID, index=읽지 못한 첫 항목)로 알린 뒤 멈춘다.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> applyBatch(HttpServletRequest request) {
+        JsonParser parser = null;
+        try {
+            parser = objectMapper.getFactory().createParser(request.getInputStream());
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("요청 본문은 JSON 배열이어야 합니다.");
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            logger.error("대량 처리 요청 파싱 중 유효성 오류: {}", e.getMessage());
+            closeQuietly(parser);
+            pointMetrics.operation("batch", "invalid");
+            String message = e.getMessage();
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(outputStream -> outputStream.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        JsonParser operations = parser;
+        StreamingResponseBody body = outputStream -> {
+            long[][] counts = new long[BatchOperationType.values().length + 1][BatchStatus.values().length];
+            try (JsonParser in = operations; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int read = applyStream(in, generator, counts);
+                generator.writeEndArray();
+                logger.info("대량 처리 완료: {}건", read);
+            } finally {
+                recordOutcomes(counts);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // 읽은 항목 수를 돌려준다
+    private int applyStream(JsonParser parser, JsonGenerator generator, long[][] counts) throws IOException {
+        List<BatchOperation> chunk = new ArrayList<>(Math.min(chunkSize, maxOperations));
+        int read = 0;
+        String error = null;
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (read >= maxOperations) {
+                    error = "한 번에 처리할 수 있는 요청은 최대 " + maxOperations + "건입니다.";
+                    break;
+                }
+                BatchOperation operation = operationReader.readValue(parser);
+                operation.index = read++;
+                chunk.add(operation);
+                if (chunk.size() >= chunkSize) {
+                    writeResults(applyChunk(chunk), generator, counts);
+                    chunk.clear();
+                }
+            }
+            if (error == null && token != JsonToken.END_ARRAY) {
+                error = "배열 원소는 JSON 객체여야 합니다.";
+            }
+        } catch (JsonProcessingException e) {
+            error = "요청 본문을 읽을 수 없습니다: " + e.getOriginalMessage();
+        }
+        if (!chunk.isEmpty()) {
+            writeResults(applyChunk(chunk), generator, counts);
+        }
+        if (error != null) {
+            logger.error("대량 처리 요청 {}번째 항목부터 중단: {}", read, error);
+            BatchResult stopped = new BatchResult();
+            stopped.index = read;
+            stopped.status = BatchStatus.INVALID;
+            stopped.message = error;
+            writeResults(new BatchResult[] { stopped }, generator, counts);
+        }
+        return read;
+    }
+
+    private static void writeResults(BatchResult[] results, JsonGenerator generator, long[][] counts) throws IOException {
+        for (BatchResult result : results) {
+            generator.writeObject(result);
+            int type = result.getType() == null ? BatchOperationType.values().length : result.getType().ordinal();
+            counts[type][result.getStatus().ordinal()]++;
+        }
+        generator.flush();
+    }
+
+    // 항목 수만큼 카운터를 조회하지 않도록 (종류, 결과)별로 모아서 기록
+    private void recordOutcomes(long[][] counts) {
+        for (int type = 0; type < counts.length; type++) {
+            String operation = type < BatchOperationType.values().length
+                ? "batch_" + BatchOperationType.values()[type].name().toLowerCase()
+                : "batch";
+            for (BatchStatus status : BatchStatus.values()) {
+                if (counts[type][status.ordinal()] > 0) {
+                    pointMetrics.operation(operation, status.name().toLowerCase(), counts[type][status.ordinal()]);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(JsonParser parser) {
+        if (parser == null) {
+            return;
+        }
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // 이미 응답을 거절했다
+        }
+    }
+
+    private static String validate(BatchOperation operation) {
+        if (operation.getUserId() == null || operation.getType() == null) {
+            return "userId 와 type 은 필수입니다.";
+        }
+        if (operation.getAmount() == null || operation.getAmount() <= 0) {
+            return "포인트는 0보다 커야 합니다.";
+        }
+        return null;
+    }
+
+    // 청크 항목의 결과 (청크 안 순서 = 요청 순서). 한 사용자의 항목은 요청 순서대로 적용한다
+    private BatchResult[] applyChunk(List<BatchOperation> operations) {
+        int base = operations.get(0).index;
+        BatchResult[] results = new BatchResult[operations.size()];
+        Map<String, List<BatchOperation>> chunk = new LinkedHashMap<>();
+        for (BatchOperation operation : operations) {
+            String invalid = validate(operation);
+            if (invalid != null) {
+                results[operation.index - base] = BatchResult.of(operation, BatchStatus.INVALID, null, invalid);
+                continue;
+            }
+            chunk.computeIfAbsent(operation.getUserId(), key -> new ArrayList<>()).add(operation);
+        }
+        if (chunk.isEmpty()) {
+            return results;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyLocked(chunk, results, base));
+        } catch (Exception e) {
+            logger.error("대량 처리 청크 반영 중 오류 발생 (사용자 {}명): {}", chunk.size(), e.getMessage(), e);
+            for (List<BatchOperation> failed : chunk.values()) {
+                for (BatchOperation operation : failed) {
+                    results[operation.index - base] = BatchResult.of(operation, BatchStatus.FAILED, null, e.getMessage());
+                }
+            }
+        }
+        return results;
+    }
+
+    private void applyLocked(Map<String, List<BatchOperation>> chunk, BatchResult[] results, int base) {
+        Map<String, Point> points = new HashMap<>();
+        for (Point point : pointRepository.findAllForUpdateByUserIdValues(chunk.keySet())) {
+            // hot 계정은 분할 행 잔액을 Point 로 모아 두고 적용한다 (차감 판단과 응답 잔액이 전체 잔액 기준이 되도록)
+            if (point.getShards() != null && point.getShards() > 0) {
+                point.setPoint(Math.toIntExact(point.getPoint() + hotAccounts.drain(point.getUserId())));
+            }
+            points.put(point.getUserId().getValue(), point);
+        }
+        // 차감은 만료가 이른 지급분부터 (Point 행을 잠근 뒤 한 번에 읽는다)
+        Map<String, List<PointGrant>> grants = points.isEmpty()
+            ? new HashMap<>()
+            : pointGrants.lockByUserIds(points.keySet());
+
+        List<PointLedgerEntry> entries = new ArrayList<>();
+        List<AbstractEvent> events = new ArrayList<>();
+        List<String> chargeEventIds = new ArrayList<>();
+        for (Map.Entry<String, List<BatchOperation>> entry : chunk.entrySet()) {
+            Point point = points.get(entry.getKey());
+            for (BatchOperation operation : entry.getValue()) {
+                if (point == null) {
+                    results[operation.index - base] = BatchResult.of(operation, BatchStatus.NOT_FOUND, null, null);
+                    continue;
+                }
+                int amount = operation.getAmount();
+                if (operation.getType() == BatchOperationType.CHARGE) {
+                    point.setPoint(point.getPoint() + amount);
+
+                    PointBought pointBought = new PointBought();
+                    pointBought.setId(UUID.randomUUID().toString());
+                    pointBought.setUserId(point.getUserId());
+                    pointBought.setPoint(amount);
+                    events.add(pointBought);
+                    chargeEventIds.add(pointBought.getId());
+                    entries.add(new PointLedgerEntry(point.getUserId(), amount, PointLedgerEntry.EntryType.CHARGE, pointBought.getId()));
+                    PointGrant grant = pointGrants.grant(point.getUserId(), amount, PointLedgerEntry.EntryType.CHARGE, pointBought.getId());
+                    if (grant != null) {
+                        PointGrants.insertOrdered(grants.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()), grant);
+                    }
+                    results[operation.index - base] = BatchResult.of(operation, BatchStatus.OK, point.getPoint(), null);
+                } else if (point.availablePoint() >= amount) {
+                    // 예약(heldPoint)된 포인트는 차감에 쓸 수 없다
+                    point.setPoint(point.getPoint() - amount);
+                    pointGrants.consume(grants.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()), amount);
+                    events.add(new PointDecreased(point));
+                    entries.add(new PointLedgerEntry(point.getUserId(), -amount, PointLedgerEntry.EntryType.DEDUCT, null));
+                    results[operation.index - base] = BatchResult.of(operation, BatchStatus.OK, point.getPoint(), null);
+                } else {
+                    events.add(new OutOfPoint(point));
+                    results[operation.index - base] = BatchResult.of(operation, BatchStatus.OUT_OF_POINT, point.getPoint(), null);
+                }
+            }
+        }
+
+        // 변경된 Point 는 커밋 시 dirty checking 으로 배치 UPDATE 되고 @PostUpdate 에서 캐시가 무효화된다
+        pointLedger.appendAll(entries);
+        // 직접 반영한 충전이므로 재소비되는 PointBought 는 PolicyHandler 가 건너뛴다
+        eventDeduplicator.recordProcessed("PointBought", chargeEventIds);
+        AbstractEvent.publishAllAfterCommit(events);
+    }
+
+    public enum BatchOperationType {
+        CHARGE,
+        DEDUCT
+    }
+
+    public enum BatchStatus {
+        OK,
+        OUT_OF_POINT,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+
+    // BatchOperation 클래스 정의
+    static class BatchOperation {
+        private int index;
+        private String userId;
+        private BatchOperationType type;
+        private Integer amount;
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+        public BatchOperationType getType() { return type; }
+        public void setType(BatchOperationType type) { this.type = type; }
+        public Integer getAmount() { return amount; }
+        public void setAmount(Integer amount) { this.amount = amount; }
+    }
+
+    // BatchResult 클래스 정의 (요청 배열과 같은 순서)
+    static class BatchResult {
+        private int index;
+        private String userId;
+        private BatchOperationType type;
+        private BatchStatus status;
+        private Integer point; // 처리 후 잔액
+        private String message;
+
+        static BatchResult of(BatchOperation operation, BatchStatus status, Integer point, String message) {
+            BatchResult result = new BatchResult();
+            result.index = operation.index;
+            result.userId = operation.getUserId();
+            result.type = operation.getType();
+            result.status = status;
+            result.point = point;
+            result.message = message;
+            return result;
+        }
+
+        public int getIndex() { return index; }
+        public String getUserId() { return userId; }
+        public BatchOperationType getType() { return type; }
+        public BatchStatus getStatus() { return status; }
+        public Integer getPoint() { return point; }
+        public String getMessage() { return message; }
+    }
+}
+//>>> Clean Arch / Inbound Adaptor
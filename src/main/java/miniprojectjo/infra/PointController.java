@@ -1,14 +1,28 @@
 package miniprojectjo.infra;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 // import javax.servlet.http.HttpServletRequest; // 사용되지 않으므로 제거
 // import javax.servlet.http.HttpServletResponse; // 사용되지 않으므로 제거
 import javax.transaction.Transactional;
 import miniprojectjo.domain.*; // Point, UserId, SubscriptionId, PointRepository 등 필요한 도메인 클래스 import
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,14 +36,52 @@ public class PointController {
     @Autowired
     PointRepository pointRepository;
 
+    @Autowired
+    PointBalanceCache pointBalanceCache;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // 엔드포인트별 응답 시간은 http.server.requests{uri} 로, 처리 결과는 point.operations 로 집계된다
+    @Autowired
+    PointMetrics pointMetrics;
+
+    @Autowired
+    PointMutationExecutor pointMutationExecutor;
+
+    @Autowired
+    PointProjection pointProjection;
+
+    @Autowired
+    HotAccounts hotAccounts;
+
+    @Autowired
+    PointGrants pointGrants;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Value("${point.mutation.retry-after-seconds:1}")
+    int mutationRetryAfterSeconds;
+
+    @Value("${point.lookup.max-ids:5000}")
+    int lookupMaxIds;
+
+    @Value("${point.lookup.chunk-size:1000}")
+    int lookupChunkSize;
+
+    @Value("${point.filter.max-limit:1000}")
+    int filterMaxLimit;
+
     // 1. 포인트 조회 (GET)
     // 예: GET http://localhost:8084/points/userId/{userId}
     @GetMapping("/userId/{userId}")
     public ResponseEntity<Point> getPointByUserId(@PathVariable String userId) {
         logger.info("조회 요청 수신: GET /points/userId/{}", userId);
-        Optional<Point> optionalPoint = pointRepository.findByUserId(new UserId(userId));
+        Optional<Point> optionalPoint = pointBalanceCache.get(new UserId(userId), pointRepository::findByUserId);
         if (optionalPoint.isPresent()) {
-            Point foundPoint = optionalPoint.get();
+            // hot 계정이면 분할 행 합계를 더한다
+            Point foundPoint = hotAccounts.withShards(optionalPoint.get());
             logger.info("포인트 데이터 찾음: userId={}, id={}, currentPoint={}", userId, foundPoint.getId(), foundPoint.getPoint());
             return new ResponseEntity<>(foundPoint, HttpStatus.OK);
         } else {
@@ -38,6 +90,98 @@ public class PointController {
         }
     }
 
+    // 1-1. 여러 사용자의 포인트 다건 조회 (POST)
+    // 예: POST http://localhost:8084/points/lookup   ["u1", "u2", ...]
+    // 응답은 {"u1":100,"u2":30} 형태이며, 포인트 레코드가 없는 사용자는 빠진다.
+    // 캐시에 없는 사용자만 청크 단위 IN 쿼리로 읽고, 청크마다 바로 응답에 써서 내려보낸다.
+    @PostMapping("/lookup")
+    public ResponseEntity<StreamingResponseBody> lookupPoints(@RequestBody List<String> userIds) {
+        logger.info("다건 조회 요청 수신: POST /points/lookup, {}건", userIds.size());
+        if (userIds.size() > lookupMaxIds) {
+            logger.warn("다건 조회 요청 거부: 요청 {}건, 최대 {}건", userIds.size(), lookupMaxIds);
+            pointMetrics.operation("lookup", "invalid");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<UserId> distinct = new ArrayList<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            if (userId != null) {
+                distinct.add(new UserId(userId));
+            }
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                for (int i = 0; i < distinct.size(); i += lookupChunkSize) {
+                    List<UserId> chunk = distinct.subList(i, Math.min(i + lookupChunkSize, distinct.size()));
+                    Map<UserId, Point> points = pointBalanceCache.get(chunk, this::findByUserIds);
+                    for (UserId userId : chunk) {
+                        Point point = points.get(userId);
+                        if (point != null) {
+                            generator.writeNumberField(userId.getValue(), hotAccounts.balanceOf(point));
+                        }
+                    }
+                    generator.flush();
+                }
+                generator.writeEndObject();
+            }
+        };
+        pointMetrics.operation("lookup", "ok");
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private List<Point> findByUserIds(List<UserId> userIds) {
+        List<String> values = new ArrayList<>(userIds.size());
+        for (UserId userId : userIds) {
+            values.add(userId.getValue());
+        }
+        return pointRepository.findByUserIdValueIn(values);
+    }
+
+    // 1-2. 조건 검색 (GET)
+    // 예: GET http://localhost:8084/points/filter?isSubscribe=true&minPoint=100&limit=100
+    //     다음 페이지: GET http://localhost:8084/points/filter?isSubscribe=true&minPoint=100&limit=100&after={next}
+    // 조건: id, userId, subscriptionId, isSubscribe, point, minPoint, maxPoint (값이 있는 것만 적용)
+    // userId 순서로 돌려주며, 다음 페이지가 있으면 next 에 마지막 userId 를 담는다 (없으면 null).
+    @GetMapping("/filter")
+    public ResponseEntity<Map<String, Object>> filterPoints(
+        @ModelAttribute GetPointQuery query,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "100") int limit
+    ) {
+        logger.info("조건 검색 요청 수신: GET /points/filter, {}, after={}, limit={}", query, after, limit);
+        if (limit <= 0) {
+            pointMetrics.operation("filter", "invalid");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.min(limit, filterMaxLimit);
+        // 한 건 더 읽어 다음 페이지가 있는지 본다
+        List<Point> points = pointRepository.search(query, after, pageSize + 1);
+        String next = null;
+        if (points.size() > pageSize) {
+            points = points.subList(0, pageSize);
+            next = points.get(pageSize - 1).getUserId().getValue();
+        }
+        // hot 계정은 분할 행 합계를 더해 돌려준다 (조건도 같은 기준으로 비교했다)
+        List<Point> results = new ArrayList<>(points.size());
+        for (Point point : points) {
+            results.add(hotAccounts.withShards(point));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("points", results);
+        body.put("next", next);
+        pointMetrics.operation("filter", "ok");
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    // 1-3. 만료 예정 포인트 조회 (GET)
+    // 예: GET http://localhost:8084/points/userId/{userId}/grants
+    // 만료가 이른 순. 목록 합계를 넘는 잔액은 만료되지 않는 포인트다.
+    @GetMapping("/userId/{userId}/grants")
+    public ResponseEntity<List<PointGrant>> getGrants(@PathVariable String userId) {
+        logger.info("만료 예정 포인트 조회 요청 수신: GET /points/userId/{}/grants", userId);
+        return new ResponseEntity<>(pointGrants.grantsOf(new UserId(userId)), HttpStatus.OK);
+    }
 
     // 2. 테스트 이벤트 발행 (POST)
     // 예: POST http://localhost:8084/points/publish-test-event
@@ -92,13 +236,16 @@ public class PointController {
 
             pointRegistered.publishAfterCommit();
             logger.info("PointRegistered 이벤트 발행 완료: userId={}", request.getUserId());
+            pointMetrics.operation("signup", "ok");
 
             return new ResponseEntity<>("Signup point request received for user: " + request.getUserId() + ". Processing via event.", HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             logger.error("가입포인트 요청 처리 중 유효성 오류: {}", e.getMessage(), e);
+            pointMetrics.operation("signup", "invalid");
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("가입포인트 요청 처리 중 알 수 없는 오류 발생: {}", e.getMessage(), e);
+            pointMetrics.operation("signup", "error");
             return new ResponseEntity<>("Failed to gain signup points: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -133,6 +280,7 @@ public class PointController {
 
                 // PointBought 이벤트 발행
                 PointBought pointBought = new PointBought();
+                pointBought.setId(java.util.UUID.randomUUID().toString()); // 이벤트 ID (중복 반영 방지용)
                 pointBought.setUserId(new UserId(request.getUserId()));
                 // PointBought 이벤트의 'point' 필드를 구매/충전 '금액'으로 설정 (PointBought.java 수정 반영)
                 pointBought.setPoint(request.getAmount()); // <--- 이 부분이 수정되었습니다.
@@ -141,17 +289,21 @@ public class PointController {
 
                 pointBought.publishAfterCommit();
                 logger.info("PointBought 이벤트 발행 완료: userId={}", request.getUserId());
+                pointMetrics.operation("charge", "ok");
 
                 return new ResponseEntity<>("Points charge request received for user: " + request.getUserId() + ". Processing via event.", HttpStatus.OK);
             } else {
                 logger.warn("충전/구매 요청 실패: 사용자 {}를 찾을 수 없거나 포인트 레코드가 없음", request.getUserId());
+                pointMetrics.operation("charge", "not_found");
                 return new ResponseEntity<>("User not found or no existing point record for user: " + request.getUserId(), HttpStatus.NOT_FOUND);
             }
         } catch (IllegalArgumentException e) {
             logger.error("포인트 충전/구매 요청 처리 중 유효성 오류: {}", e.getMessage(), e);
+            pointMetrics.operation("charge", "invalid");
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("포인트 충전/구매 요청 처리 중 알 수 없는 오류 발생: {}", e.getMessage(), e);
+            pointMetrics.operation("charge", "error");
             return new ResponseEntity<>("Failed to charge points: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -171,37 +323,83 @@ public class PointController {
 
     // 5. 포인트 차감 (POST)
     // 예: POST http://localhost:8084/points/deduct
+    // 같은 사용자의 다른 변경과 겹치지 않도록 userId 스트라이프에서 실행한다 (PointMutationExecutor).
+    // 스트라이프 대기열이 가득 차면 바로 503 + Retry-After 로 돌려보낸다.
     @PostMapping("/deduct")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public ResponseEntity<String> deductPoint(@RequestBody PointDeductRequest request) {
         logger.info("포인트 차감 요청 수신: userId={}, amount={}", request.getUserId(), request.getAmount());
         try {
-            Optional<Point> optionalPoint = pointRepository.findByUserId(new UserId(request.getUserId()));
+            return pointMutationExecutor.call(request.getUserId(), () -> transactionTemplate.execute(status -> deduct(request, status)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("포인트 차감 요청 거절 (변경 대기열 가득 참): userId={}", request.getUserId());
+            pointMetrics.operation("deduct", "busy");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(mutationRetryAfterSeconds))
+                .body("Too many pending point changes for user: " + request.getUserId());
+        } catch (Exception e) {
+            logger.error("포인트 차감 트랜잭션 처리 중 오류 발생: {}", e.getMessage(), e);
+            pointMetrics.operation("deduct", "error");
+            return new ResponseEntity<>("Failed to deduct points: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 오류 응답으로 끝낼 때는 트랜잭션을 롤백한다 (차감만 커밋되고 원장/지급분 기록이 빠지지 않도록)
+    private ResponseEntity<String> deduct(PointDeductRequest request, TransactionStatus status) {
+        try {
+            if (request.getAmount() == null || request.getAmount() <= 0) {
+                throw new IllegalArgumentException("차감할 포인트는 0보다 커야 합니다.");
+            }
+            UserId userId = new UserId(request.getUserId());
+
+            // 잔액 비교와 차감을 한 번의 조건부 UPDATE로 처리 (동시 차감 시 lost update 방지)
+            int updated = pointRepository.decreasePointIfEnough(userId, request.getAmount());
+            // hot 계정은 분할 행에 쌓인 충전을 모은 뒤 한 번 더 시도
+            if (updated == 0 && hotAccounts.sweep(userId) > 0) {
+                updated = pointRepository.decreasePointIfEnough(userId, request.getAmount());
+            }
+            if (updated > 0) {
+                pointBalanceCache.invalidate(userId);
+                // 만료가 이른 지급분부터 쓴다
+                pointGrants.consume(userId, request.getAmount());
+                PointLedgerEntry.append(userId, -request.getAmount(), PointLedgerEntry.EntryType.DEDUCT, null);
+            }
+
+            Optional<Point> optionalPoint = pointRepository.findByUserId(userId);
             if (optionalPoint.isPresent()) {
                 Point point = optionalPoint.get();
-                logger.info("기존 포인트 엔티티 찾음 (차감): ID={}, 현재포인트={}", point.getId(), point.getPoint());
 
-                if (point.getPoint() < request.getAmount()) {
+                if (updated == 0) {
                     logger.warn("포인트 부족 오류: userId={}, 현재포인트={}, 차감요청={}", request.getUserId(), point.getPoint(), request.getAmount());
                     OutOfPoint outOfPoint = new OutOfPoint(point);
                     outOfPoint.publishAfterCommit();
+                    pointMetrics.operation("deduct", "out_of_point");
                     return new ResponseEntity<>("Not enough points for user: " + request.getUserId(), HttpStatus.BAD_REQUEST);
                 }
-                point.setPoint(point.getPoint() - request.getAmount());
-                logger.info("포인트 차감 후: ID={}, 업데이트포인트={}", point.getId(), point.getPoint());
-                pointRepository.save(point);
-                logger.info("포인트 엔티티 저장 완료 (차감): ID={}, 최종포인트={}", point.getId(), point.getPoint());
+                logger.info("포인트 차감 완료: ID={}, 최종포인트={}", point.getId(), point.getPoint());
 
                 PointDecreased pointDecreased = new PointDecreased(point);
+                pointDecreased.setPoint(hotAccounts.currentBalanceOf(point));
                 pointDecreased.publishAfterCommit();
+                pointProjection.applyDecreased(pointDecreased);
                 logger.info("PointDecreased 이벤트 발행 완료: ID={}", point.getId());
+                pointMetrics.operation("deduct", "ok");
 
                 return new ResponseEntity<>("Points deducted for user: " + request.getUserId(), HttpStatus.OK);
             } else {
                 logger.warn("포인트 차감 요청 실패: 사용자 {}를 찾을 수 없거나 포인트 레코드가 없음", request.getUserId());
+                pointMetrics.operation("deduct", "not_found");
                 return new ResponseEntity<>("User not found or no existing point record for user: " + request.getUserId(), HttpStatus.NOT_FOUND);
             }
+        } catch (IllegalArgumentException e) {
+            status.setRollbackOnly();
+            logger.error("포인트 차감 요청 처리 중 유효성 오류: {}", e.getMessage(), e);
+            pointMetrics.operation("deduct", "invalid");
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
+            status.setRollbackOnly();
             logger.error("포인트 차감 요청 처리 중 알 수 없는 오류 발생: {}", e.getMessage(), e);
+            pointMetrics.operation("deduct", "error");
             return new ResponseEntity<>("Failed to deduct points: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -0,0 +1,222 @@
+package miniprojectjo.infra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+//<<< PoEAA / Keyset Export
+// Point_table 전체를 NDJSON 또는 CSV 로 내려보낸다 (분석용).
+// userId 키셋(ux_point_user_id) 으로 point.export.page-size 건씩 읽어 바로 응답에 쓰고 페이지마다 flush 하므로,
+// 행 수와 관계없이 메모리는 한 페이지 이하로 유지되고 offset 페이지(Spring Data REST /points?page=)처럼 앞 행을 다시 읽지 않는다.
+// 페이지마다 따로 조회하므로 전체가 한 시점의 스냅샷은 아니다.
+@RestController
+@RequestMapping(value = "/points/export")
+public class PointExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointExportController.class);
+
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+    private static final MediaType CSV = MediaType.valueOf("text/csv");
+
+    // 내보낼 수 있는 필드 → 컬럼. point 는 hot 계정의 분할 행 합계를 더한 잔액 (GET /points/userId/{userId} 와 같은 값)
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("userId", "p.user_id_value");
+        COLUMNS.put("id", "p.id");
+        COLUMNS.put("point", "p.point + coalesce((select sum(s.point) from point_shard_table s where s.user_id_value = p.user_id_value), 0)");
+        COLUMNS.put("heldPoint", "coalesce(p.held_point, 0)");
+        COLUMNS.put("isSubscribe", "p.is_subscribe");
+        COLUMNS.put("subscriptionId", "p.subscription_id_value");
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PointMetrics pointMetrics;
+
+    @Value("${point.export.page-size:1000}")
+    int pageSize;
+
+    // 1. 전체 내보내기 (GET)
+    // 예: GET http://localhost:8084/points/export?format=ndjson
+    //     GET http://localhost:8084/points/export?format=csv&fields=userId,point&after=user-0420&limit=100000
+    // fields: userId, id, point, heldPoint, isSubscribe, subscriptionId (생략 시 전부). userId 는 항상 첫 필드로 포함된다.
+    // userId 순서로 내보내며, 중단되면 마지막으로 받은 행의 userId 를 after 로 넘겨 이어 받는다. limit 0 은 끝까지.
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestParam(required = false) List<String> fields,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "0") long limit
+    ) {
+        logger.info("내보내기 요청 수신: GET /points/export, format={}, fields={}, after={}, limit={}", format, fields, after, limit);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format) || limit < 0) {
+            pointMetrics.operation("export", "invalid");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<String> selected = new ArrayList<>();
+        selected.add("userId");
+        if (fields == null || fields.isEmpty()) {
+            selected = new ArrayList<>(COLUMNS.keySet());
+        } else {
+            for (String field : fields) {
+                if (!COLUMNS.containsKey(field)) {
+                    logger.warn("내보내기 요청 거부: 알 수 없는 필드 {}", field);
+                    pointMetrics.operation("export", "invalid");
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                if (!selected.contains(field)) {
+                    selected.add(field);
+                }
+            }
+        }
+
+        List<String> exported = selected;
+        StreamingResponseBody body = outputStream -> {
+            long rows = csv ? writeCsv(outputStream, exported, after, limit) : writeNdjson(outputStream, exported, after, limit);
+            logger.info("내보내기 완료: {}건", rows);
+            pointMetrics.operation("export", "ok");
+        };
+        return ResponseEntity.ok().contentType(csv ? CSV : NDJSON).body(body);
+    }
+
+    private long writeNdjson(OutputStream outputStream, List<String> fields, String after, long limit) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // 최상위 값 사이 구분자(기본 공백) 대신 줄바꿈만 쓴다
+            generator.setRootValueSeparator(null);
+            return scan(fields, after, limit, resultSet -> {
+                generator.writeStartObject();
+                for (int i = 0; i < fields.size(); i++) {
+                    generator.writeFieldName(fields.get(i));
+                    Object value = resultSet.getObject(i + 1);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else if (value instanceof Number) {
+                        generator.writeNumber(((Number) value).longValue());
+                    } else if (value instanceof Boolean) {
+                        generator.writeBoolean((Boolean) value);
+                    } else {
+                        generator.writeString(value.toString());
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }, generator::flush);
+        }
+    }
+
+    private long writeCsv(OutputStream outputStream, List<String> fields, String after, long limit) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.write(String.join(",", fields));
+            writer.write('\n');
+            return scan(fields, after, limit, resultSet -> {
+                for (int i = 0; i < fields.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    Object value = resultSet.getObject(i + 1);
+                    if (value != null) {
+                        writer.write(csvValue(value.toString()));
+                    }
+                }
+                writer.write('\n');
+            }, writer::flush);
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // after 다음 userId 부터 페이지 단위로 읽어 행마다 row 를 부르고, 페이지가 끝날 때마다 flush 한다
+    private long scan(List<String> fields, String after, long limit, RowWriter row, Flusher flush) throws IOException {
+        List<String> columns = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            columns.add(COLUMNS.get(field));
+        }
+        // userId 는 항상 첫 컬럼 (다음 페이지 키)
+        String sql = "select " + String.join(", ", columns) + " from point_table p " +
+            "where p.user_id_value > ? order by p.user_id_value limit ?";
+        String cursor = after == null ? "" : after;
+        long written = 0;
+        while (limit == 0 || written < limit) {
+            int size = limit == 0 ? pageSize : (int) Math.min(pageSize, limit - written);
+            String from = cursor;
+            String[] last = new String[1];
+            int[] count = new int[1];
+            try {
+                jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(sql);
+                        statement.setFetchSize(size);
+                        statement.setString(1, from);
+                        statement.setInt(2, size);
+                        return statement;
+                    },
+                    resultSet -> {
+                        try {
+                            row.write(resultSet);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        last[0] = resultSet.getString(1);
+                        count[0]++;
+                    }
+                );
+            } catch (UncheckedIOException e) {
+                // 클라이언트가 연결을 끊었다
+                throw e.getCause();
+            }
+            written += count[0];
+            flush.flush();
+            if (count[0] < size) {
+                break;
+            }
+            cursor = last[0];
+        }
+        return written;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet resultSet) throws SQLException, IOException;
+    }
+
+    @FunctionalInterface
+    private interface Flusher {
+        void flush() throws IOException;
+    }
+}
+//>>> PoEAA / Keyset Export
@@ -0,0 +1,410 @@
+package miniprojectjo.infra;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import miniprojectjo.PointApplication;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.PointExpired;
+import miniprojectjo.domain.PointGrant;
+import miniprojectjo.domain.PointGrantRepository;
+import miniprojectjo.domain.PointLedgerEntry;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< DDD / Domain Service
+// 만료되는 포인트 지급(PointGrant) 관리.
+// - 지급: 가입 지급(SIGNUP_GRANT)은 point.grant.signup-ttl-days, 구매/충전(PURCHASE, CHARGE)은 purchase-ttl-days 뒤 자정(point.grant.zone)에 만료된다.
+//   ttl 이 0 이면 grant 를 만들지 않는다 (만료되지 않는 포인트)
+// - 차감: 잔액 차감과 같은 트랜잭션에서 만료가 가장 이른 grant 부터 쓴다 (consume). grant 합계보다 많이 쓰면 나머지는 만료되지 않는 포인트에서 나간 것이다
+// - 만료: sweep 이 만료 시각을 point.grant.bucket-ms 구간으로 나눠 앞에서부터 chunk-size 건씩 읽고, 나온 사용자마다
+//   그 사용자 스트라이프에서 짧은 트랜잭션으로 만료된 grant 를 모두 처리한 뒤 PointExpired 1건을 발행한다.
+//   자정에 몰린 만료도 사용자 단위 트랜잭션으로 잘게 나뉘고, 동시에 처리하는 사용자는 sweep-threads 명으로 제한되며,
+//   한 번의 실행은 sweep-budget-ms 를 넘기면 멈추고 다음 실행에서 이어간다.
+// 예약(heldPoint)된 포인트는 만료하지 않는다: 만료분이 사용 가능 잔액보다 크면 사용 가능 잔액만큼만 차감하고, 예약분만큼은 grant 에 남긴다.
+// 남긴 grant 는 예약이 확정/해제될 때(PointHolds) expireReleased 로 마저 만료한다.
+@Component
+public class PointGrants {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointGrants.class);
+
+    private static final String INSERT_SQL =
+        "insert into point_grant_table (id, user_id_value, amount, remaining, source, event_id, granted_at, expires_at) " +
+        "values (next value for point_grant_seq, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PointGrantRepository pointGrantRepository;
+    private final PointRepository pointRepository;
+    private final PointBalanceCache pointBalanceCache;
+    private final PointProjection pointProjection;
+    private final HotAccounts hotAccounts;
+    private final PointMutationExecutor pointMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final PointMetrics pointMetrics;
+    private final int signupTtlDays;
+    private final int purchaseTtlDays;
+    private final ZoneId zone;
+    private final boolean sweeperEnabled;
+    private final long bucketMillis;
+    private final int chunkSize;
+    private final long sweepBudgetMillis;
+    private final ExecutorService sweepThreads;
+
+    // 이 시각 이전에 만료되는 grant 는 모두 처리했다 (-1 = 아직 모름, 첫 sweep 에서 DB 의 가장 이른 만료 시각으로 정한다)
+    private volatile long sweptUntil = -1L;
+
+    @Autowired
+    public PointGrants(
+        PointGrantRepository pointGrantRepository,
+        PointRepository pointRepository,
+        PointBalanceCache pointBalanceCache,
+        PointProjection pointProjection,
+        HotAccounts hotAccounts,
+        PointMutationExecutor pointMutationExecutor,
+        TransactionTemplate transactionTemplate,
+        JdbcTemplate jdbcTemplate,
+        PointMetrics pointMetrics,
+        @Value("${point.grant.signup-ttl-days:365}") int signupTtlDays,
+        @Value("${point.grant.purchase-ttl-days:0}") int purchaseTtlDays,
+        @Value("${point.grant.zone:Asia/Seoul}") String zone,
+        @Value("${point.grant.sweeper.enabled:true}") boolean sweeperEnabled,
+        @Value("${point.grant.bucket-ms:60000}") long bucketMillis,
+        @Value("${point.grant.chunk-size:1000}") int chunkSize,
+        @Value("${point.grant.sweep-threads:4}") int sweepThreads,
+        @Value("${point.grant.sweep-budget-ms:30000}") long sweepBudgetMillis
+    ) {
+        if (bucketMillis <= 0 || chunkSize <= 0 || sweepThreads <= 0) {
+            throw new IllegalArgumentException("point.grant.bucket-ms, chunk-size, sweep-threads 는 0보다 커야 합니다.");
+        }
+        this.pointGrantRepository = pointGrantRepository;
+        this.pointRepository = pointRepository;
+        this.pointBalanceCache = pointBalanceCache;
+        this.pointProjection = pointProjection;
+        this.hotAccounts = hotAccounts;
+        this.pointMutationExecutor = pointMutationExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pointMetrics = pointMetrics;
+        this.signupTtlDays = signupTtlDays;
+        this.purchaseTtlDays = purchaseTtlDays;
+        this.zone = ZoneId.of(zone);
+        this.sweeperEnabled = sweeperEnabled;
+        this.bucketMillis = bucketMillis;
+        this.chunkSize = chunkSize;
+        this.sweepBudgetMillis = sweepBudgetMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sweepThreads = Executors.newFixedThreadPool(sweepThreads, runnable -> {
+            Thread thread = new Thread(runnable, "point-grant-sweep-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static PointGrants instance() {
+        return PointApplication.applicationContext.getBean(PointGrants.class);
+    }
+
+    // --- 지급 ---
+
+    // 잔액에 반영한 직후(같은 트랜잭션) 호출한다. 만료가 없는 지급이면 null
+    public PointGrant grant(UserId userId, int amount, PointLedgerEntry.EntryType source, String eventId) {
+        long now = System.currentTimeMillis();
+        Long expiresAt = expiresAt(source, now);
+        if (expiresAt == null || amount <= 0 || userId == null) {
+            return null;
+        }
+        return pointGrantRepository.save(new PointGrant(userId, amount, source, eventId, now, expiresAt));
+    }
+
+    // 원장에 남긴 지급들을 JDBC 배치로 한 번에 (배치 소비)
+    public void grantAll(List<PointLedgerEntry> entries) {
+        long now = System.currentTimeMillis();
+        List<Object[]> args = new ArrayList<>();
+        for (PointLedgerEntry entry : entries) {
+            Long expiresAt = expiresAt(entry.getType(), now);
+            if (expiresAt == null || entry.getDelta() <= 0) {
+                continue;
+            }
+            args.add(new Object[] {
+                entry.getUserId().getValue(),
+                entry.getDelta(),
+                entry.getDelta(),
+                entry.getType().name(),
+                entry.getEventId(),
+                now,
+                expiresAt,
+            });
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+    }
+
+    // 지급일로부터 ttl 일 뒤의 다음 자정
+    private Long expiresAt(PointLedgerEntry.EntryType source, long now) {
+        int ttlDays;
+        switch (source) {
+            case SIGNUP_GRANT:
+                ttlDays = signupTtlDays;
+                break;
+            case PURCHASE:
+            case CHARGE:
+                ttlDays = purchaseTtlDays;
+                break;
+            default:
+                return null;
+        }
+        if (ttlDays <= 0) {
+            return null;
+        }
+        return Instant.ofEpochMilli(now).atZone(zone).toLocalDate()
+            .plusDays(ttlDays + 1L)
+            .atStartOfDay(zone)
+            .toInstant()
+            .toEpochMilli();
+    }
+
+    // --- 차감 ---
+
+    // 잔액 차감 직후(같은 트랜잭션, Point 행 잠금 이후) 호출한다
+    public void consume(UserId userId, int amount) {
+        int left = amount;
+        while (left > 0) {
+            List<PointGrant> grants = pointGrantRepository.findConsumable(userId, PageRequest.of(0, 100));
+            if (grants.isEmpty()) {
+                return;
+            }
+            left = consume(grants, left);
+        }
+    }
+
+    // 대량 처리: 사용자별로 만료 순으로 정렬해 잠근 grant (Point 행을 잠근 뒤 호출)
+    public Map<String, List<PointGrant>> lockByUserIds(Collection<String> userIds) {
+        Map<String, List<PointGrant>> grants = new HashMap<>();
+        for (PointGrant grant : pointGrantRepository.findConsumableByUserIdValues(userIds)) {
+            grants.computeIfAbsent(grant.getUserId().getValue(), key -> new ArrayList<>()).add(grant);
+        }
+        return grants;
+    }
+
+    // 대량 처리: 같은 트랜잭션에서 새로 지급한 grant 를 만료 순서에 맞춰 끼워 넣는다
+    public static void insertOrdered(List<PointGrant> grants, PointGrant grant) {
+        int index = grants.size();
+        while (index > 0 && grants.get(index - 1).getExpiresAt() > grant.getExpiresAt()) {
+            index--;
+        }
+        grants.add(index, grant);
+    }
+
+    // 만료 순으로 정렬된 grants 에서 amount 만큼 쓴다. 다 쓴 grant 는 지우고 목록에서 뺀다. 쓰지 못한 양을 돌려준다.
+    public int consume(List<PointGrant> grants, int amount) {
+        int left = amount;
+        while (left > 0 && !grants.isEmpty()) {
+            PointGrant grant = grants.get(0);
+            if (grant.getRemaining() > left) {
+                grant.setRemaining(grant.getRemaining() - left);
+                return 0;
+            }
+            left -= grant.getRemaining();
+            pointGrantRepository.delete(grant);
+            grants.remove(0);
+        }
+        return left;
+    }
+
+    public List<PointGrant> grantsOf(UserId userId) {
+        return pointGrantRepository.findByUserIdOrderByExpiresAtAscIdAsc(userId);
+    }
+
+    // --- 만료 ---
+
+    @Scheduled(
+        initialDelayString = "${point.grant.sweep-interval-ms:60000}",
+        fixedDelayString = "${point.grant.sweep-interval-ms:60000}"
+    )
+    public void scheduledSweep() {
+        if (!sweeperEnabled) {
+            return;
+        }
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.error("PointGrants: 만료 처리 실패 (다음 주기에 재시도): {}", e.getMessage(), e);
+        }
+    }
+
+    // 지금까지 만료된 grant 를 처리하고, 만료를 처리한 사용자 수를 돌려준다
+    public int sweep() {
+        long now = System.currentTimeMillis();
+        long deadline = now + sweepBudgetMillis;
+        int users = 0;
+        long from = sweptUntil;
+        if (from < 0) {
+            Long earliest = pointGrantRepository.findNextExpiry(0L);
+            if (earliest == null) {
+                return 0;
+            }
+            from = Math.min(bucketStart(earliest), bucketStart(now));
+        }
+        while (from <= now) {
+            long to = Math.min(from + bucketMillis, now + 1);
+            int swept = sweepBucket(from, to, now, deadline);
+            if (swept < 0) {
+                // 예산 초과 또는 실패: 이 구간부터 다음 실행에서 다시 (처리한 grant 는 지워졌으므로 다시 읽지 않는다)
+                break;
+            }
+            users += swept;
+            if (to > now) {
+                // 아직 진행 중인 구간은 다음 실행에서 다시 본다
+                break;
+            }
+            from = to;
+            // 빈 구간을 건너뛴다. 지금 구간보다 앞으로는 가지 않는다 (그 사이에 만료되는 grant 가 새로 생길 수 있다)
+            Long next = pointGrantRepository.findNextExpiry(from);
+            from = next == null ? bucketStart(now) : Math.max(from, Math.min(bucketStart(next), bucketStart(now)));
+        }
+        sweptUntil = from;
+        if (users > 0) {
+            logger.info("PointGrants: 포인트 만료 처리 {}명", users);
+        }
+        return users;
+    }
+
+    // [from, to) 구간을 chunk-size 건씩 읽어 사용자별로 만료 처리. 구간을 끝내지 못하면 -1
+    private int sweepBucket(long from, long to, long now, long deadline) {
+        int users = 0;
+        long afterExpiresAt = from - 1;
+        long afterId = Long.MAX_VALUE;
+        while (true) {
+            if (System.currentTimeMillis() > deadline) {
+                return -1;
+            }
+            List<Object[]> rows = pointGrantRepository.findExpiring(from, to, afterExpiresAt, afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                return users;
+            }
+            Set<String> userIds = new LinkedHashSet<>();
+            for (Object[] row : rows) {
+                userIds.add((String) row[2]);
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            afterExpiresAt = (Long) last[0];
+            afterId = (Long) last[1];
+
+            List<Future<Integer>> results = new ArrayList<>(userIds.size());
+            for (String userId : userIds) {
+                results.add(sweepThreads.submit(() -> expire(userId, now)));
+            }
+            boolean failed = false;
+            for (Future<Integer> result : results) {
+                try {
+                    if (result.get() >= 0) {
+                        users++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                } catch (Exception e) {
+                    logger.error("PointGrants: 사용자 만료 처리 실패: {}", e.getMessage(), e);
+                    pointMetrics.operation("grant_expire", "error");
+                    failed = true;
+                }
+            }
+            if (failed) {
+                return -1;
+            }
+        }
+    }
+
+    // 한 사용자의 만료된 grant 를 모두 처리하고 PointExpired 1건 발행. 차감한 포인트를 돌려준다 (처리할 grant 가 없었으면 -1)
+    public int expire(String userId, long now) {
+        return pointMutationExecutor.callBlocking(userId, () -> transactionTemplate.execute(status -> {
+            // Point 행을 먼저 잠근다 (차감 경로와 같은 순서)
+            List<Point> locked = pointRepository.findAllForUpdateByUserIdValues(Collections.singletonList(userId));
+            return expireLocked(new UserId(userId), locked.isEmpty() ? null : locked.get(0), now);
+        }));
+    }
+
+    // 예약 확정/해제 직후(같은 트랜잭션, Point 행 잠금 이후) 호출한다: 예약 때문에 남겨 둔 만료 grant 를 마저 만료한다
+    public int expireReleased(UserId userId, long now) {
+        return expireLocked(userId, pointRepository.findByUserId(userId).orElse(null), now);
+    }
+
+    private int expireLocked(UserId id, Point point, long now) {
+        List<PointGrant> due = pointGrantRepository.findDue(id, now);
+        if (due.isEmpty()) {
+            return -1;
+        }
+        if (point == null) {
+            pointGrantRepository.deleteAll(due);
+            return 0;
+        }
+        int total = 0;
+        for (PointGrant grant : due) {
+            total += grant.getRemaining();
+        }
+        // hot 계정은 분할 행을 모아 Point 에서 만료한다
+        if (point.getShards() != null && point.getShards() > 0 && point.availablePoint() < total && hotAccounts.sweep(id) > 0) {
+            point = pointRepository.findByUserId(id).orElse(point);
+        }
+        int expired = Math.min(total, Math.max(0, point.availablePoint()));
+        // 예약분에 막혀 만료하지 못한 양은 grant 에 남긴다 (잔액에 없는 나머지는 버린다)
+        int kept = Math.min(total - expired, point.getHeldPoint() == null ? 0 : Math.max(0, point.getHeldPoint()));
+        if (expired > 0 && pointRepository.decreasePointIfEnough(id, expired) > 0) {
+            pointBalanceCache.invalidate(id);
+            PointLedgerEntry.append(id, -expired, PointLedgerEntry.EntryType.EXPIRE, null);
+            pointProjection.applyDelta(id, -expired);
+            point = pointRepository.findByUserId(id).orElse(point);
+        } else {
+            kept = Math.min(total, kept + expired);
+            expired = 0;
+        }
+        // 차감/분할 행 UPDATE 가 영속성 컨텍스트를 비웠으므로 다시 읽는다
+        due = pointGrantRepository.findDue(id, now);
+        int grants = due.size();
+        consume(due, total - kept);
+        grants -= due.size();
+        if (expired == 0 && grants == 0) {
+            return 0;
+        }
+
+        PointExpired pointExpired = new PointExpired(point);
+        pointExpired.setAmount(expired);
+        pointExpired.setGrants(grants);
+        pointExpired.setPoint(hotAccounts.currentBalanceOf(point));
+        pointExpired.publishAfterCommit();
+        pointMetrics.operation("grant_expire", "ok");
+        return expired;
+    }
+
+    private long bucketStart(long time) {
+        return time - Math.floorMod(time, bucketMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweepThreads.shutdownNow();
+    }
+}
+//>>> DDD / Domain Service
@@ -0,0 +1,135 @@
+package miniprojectjo.infra;
+
+import java.util.concurrent.RejectedExecutionException;
+import javax.transaction.Transactional;
+import miniprojectjo.domain.PointHold;
+import miniprojectjo.domain.PointHoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+//<<< DDD / Two-Phase Reservation
+// 포인트 예약(hold) → 확정(capture) / 해제(release). 예약은 ttlSeconds 가 지나면 자동으로 해제된다 (PointHolds).
+// 변경은 사용자 스트라이프에서 실행되므로 호출 스레드는 트랜잭션 없이 기다린다.
+@RestController
+@RequestMapping(value = "/points/holds")
+@Transactional(Transactional.TxType.NOT_SUPPORTED)
+public class PointHoldController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointHoldController.class);
+
+    @Autowired
+    PointHolds pointHolds;
+
+    @Autowired
+    PointHoldRepository pointHoldRepository;
+
+    @Autowired
+    PointMetrics pointMetrics;
+
+    @Value("${point.mutation.retry-after-seconds:1}")
+    int mutationRetryAfterSeconds;
+
+    // 1. 포인트 예약 (POST)
+    // 예: POST http://localhost:8084/points/holds   {"userId":"u1","amount":300,"ttlSeconds":600,"reference":"order-1"}
+    // 쓸 수 있는 포인트(point - heldPoint)가 모자라면 400, 포인트 레코드가 없으면 404
+    @PostMapping
+    public ResponseEntity<Object> reserve(@RequestBody HoldRequest request) {
+        logger.info("포인트 예약 요청 수신: userId={}, amount={}, ttlSeconds={}", request.getUserId(), request.getAmount(), request.getTtlSeconds());
+        try {
+            PointHolds.Result result = pointHolds.reserve(request.getUserId(), request.getAmount(), request.getTtlSeconds(), request.getReference());
+            return respond(result, HttpStatus.CREATED, "Not enough points for user: " + request.getUserId());
+        } catch (RejectedExecutionException e) {
+            return busy("hold", request.getUserId());
+        } catch (Exception e) {
+            logger.error("포인트 예약 처리 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to hold points: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 2. 예약 확정 (POST)
+    // 예: POST http://localhost:8084/points/holds/{holdId}/capture?amount=200   (amount 생략 시 예약 전액)
+    // 이미 확정/해제/만료된 예약이면 409
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<Object> capture(@PathVariable String holdId, @RequestParam(required = false) Integer amount) {
+        logger.info("포인트 예약 확정 요청 수신: holdId={}, amount={}", holdId, amount);
+        try {
+            return respond(pointHolds.capture(holdId, amount), HttpStatus.OK, null);
+        } catch (RejectedExecutionException e) {
+            return busy("hold_capture", holdId);
+        } catch (Exception e) {
+            logger.error("포인트 예약 확정 처리 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to capture hold: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 3. 예약 해제 (POST)
+    // 예: POST http://localhost:8084/points/holds/{holdId}/release
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<Object> release(@PathVariable String holdId) {
+        logger.info("포인트 예약 해제 요청 수신: holdId={}", holdId);
+        try {
+            return respond(pointHolds.release(holdId), HttpStatus.OK, null);
+        } catch (RejectedExecutionException e) {
+            return busy("hold_release", holdId);
+        } catch (Exception e) {
+            logger.error("포인트 예약 해제 처리 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to release hold: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 4. 예약 조회 (GET)
+    // 예: GET http://localhost:8084/points/holds/{holdId}
+    @GetMapping("/{holdId}")
+    public ResponseEntity<PointHold> getHold(@PathVariable String holdId) {
+        return pointHoldRepository.findById(holdId)
+            .map(hold -> new ResponseEntity<>(hold, HttpStatus.OK))
+            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    private static ResponseEntity<Object> respond(PointHolds.Result result, HttpStatus ok, String outOfPointMessage) {
+        switch (result.getOutcome()) {
+            case OK:
+                return new ResponseEntity<>(result.getHold(), ok);
+            case OUT_OF_POINT:
+                return new ResponseEntity<>(outOfPointMessage, HttpStatus.BAD_REQUEST);
+            case INVALID:
+                return new ResponseEntity<>("Invalid hold request", HttpStatus.BAD_REQUEST);
+            case NOT_FOUND:
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            default:
+                // NOT_HELD: 현재 상태를 돌려준다
+                return new ResponseEntity<>(result.getHold(), HttpStatus.CONFLICT);
+        }
+    }
+
+    private ResponseEntity<Object> busy(String operation, String key) {
+        logger.warn("포인트 예약 요청 거절 (변경 대기열 가득 참): {}", key);
+        pointMetrics.operation(operation, "busy");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(mutationRetryAfterSeconds))
+            .body("Too many pending point changes: " + key);
+    }
+
+    // HoldRequest 클래스 정의
+    static class HoldRequest {
+        private String userId;
+        private Integer amount; // 예약할 포인트
+        private Long ttlSeconds; // 생략 시 point.hold.default-ttl-seconds
+        private String reference; // 주문 번호 등 (선택)
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+        public Integer getAmount() { return amount; }
+        public void setAmount(Integer amount) { this.amount = amount; }
+        public Long getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+        public String getReference() { return reference; }
+        public void setReference(String reference) { this.reference = reference; }
+    }
+}
+//>>> DDD / Two-Phase Reservation
@@ -0,0 +1,293 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import miniprojectjo.domain.PointCaptured;
+import miniprojectjo.domain.PointHeld;
+import miniprojectjo.domain.PointHold;
+import miniprojectjo.domain.PointHoldRepository;
+import miniprojectjo.domain.PointLedgerEntry;
+import miniprojectjo.domain.PointReleased;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< DDD / Two-Phase Reservation
+// 포인트 예약: reserve 로 잡아 두고(heldPoint 증가, 사용 가능 잔액 감소) capture 로 확정하거나 release 로 푼다.
+// - 상태 변경은 모두 같은 사용자의 스트라이프(PointMutationExecutor)에서 한 트랜잭션으로 Point 와 PointHold 를 함께 고친다
+// - PointHold 는 HELD 에서 한 번만 바뀐다 (조건부 UPDATE). 확정/해제/만료가 겹치면 먼저 커밋한 쪽만 반영된다
+// - 만료: 이 인스턴스가 만든 예약은 HoldExpiryWheel 에 걸어 두고 point.hold.tick-ms 마다 만료된 칸만 꺼낸다.
+//   재기동으로 휠에서 빠졌거나 다른 인스턴스가 만든 예약은 point.hold.overdue-check-ms 마다 (status, expiresAt) 인덱스 범위로 찾는다
+// - 이벤트: PointHeld, PointCaptured, PointReleased (reason = released / expired)
+@Component
+public class PointHolds {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointHolds.class);
+
+    public enum Outcome {
+        OK,
+        INVALID,
+        NOT_FOUND,
+        OUT_OF_POINT,
+        // 이미 확정/해제/만료된 예약
+        NOT_HELD
+    }
+
+    private final PointRepository pointRepository;
+    private final PointHoldRepository pointHoldRepository;
+    private final PointBalanceCache pointBalanceCache;
+    private final PointProjection pointProjection;
+    private final HotAccounts hotAccounts;
+    private final PointGrants pointGrants;
+    private final PointMutationExecutor pointMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final PointMetrics pointMetrics;
+    private final long defaultTtlSeconds;
+    private final long maxTtlSeconds;
+    private final int overdueBatch;
+    private final HoldExpiryWheel wheel;
+
+    @Autowired
+    public PointHolds(
+        PointRepository pointRepository,
+        PointHoldRepository pointHoldRepository,
+        PointBalanceCache pointBalanceCache,
+        PointProjection pointProjection,
+        HotAccounts hotAccounts,
+        PointGrants pointGrants,
+        PointMutationExecutor pointMutationExecutor,
+        TransactionTemplate transactionTemplate,
+        PointMetrics pointMetrics,
+        MeterRegistry meterRegistry,
+        @Value("${point.hold.default-ttl-seconds:900}") long defaultTtlSeconds,
+        @Value("${point.hold.max-ttl-seconds:86400}") long maxTtlSeconds,
+        @Value("${point.hold.tick-ms:1000}") long tickMillis,
+        @Value("${point.hold.wheel-size:512}") int wheelSize,
+        @Value("${point.hold.overdue-batch:1000}") int overdueBatch
+    ) {
+        this.pointRepository = pointRepository;
+        this.pointHoldRepository = pointHoldRepository;
+        this.pointBalanceCache = pointBalanceCache;
+        this.pointProjection = pointProjection;
+        this.hotAccounts = hotAccounts;
+        this.pointGrants = pointGrants;
+        this.pointMutationExecutor = pointMutationExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.pointMetrics = pointMetrics;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.overdueBatch = overdueBatch;
+        this.wheel = new HoldExpiryWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        Gauge.builder("point.holds.scheduled", wheel, HoldExpiryWheel::size)
+            .description("만료 휠에 걸려 있는 포인트 예약 수")
+            .register(meterRegistry);
+    }
+
+    // --- 예약/확정/해제 ---
+
+    // ttlSeconds 가 null 이면 point.hold.default-ttl-seconds. 스트라이프 대기열이 가득 차면 RejectedExecutionException
+    public Result reserve(String userId, Integer amount, Long ttlSeconds, String reference) {
+        long ttl = ttlSeconds == null ? defaultTtlSeconds : ttlSeconds;
+        if (userId == null || amount == null || amount <= 0 || ttl <= 0 || ttl > maxTtlSeconds) {
+            return Result.of(Outcome.INVALID, null);
+        }
+        long expiresAt = System.currentTimeMillis() + ttl * 1000;
+        Result result = pointMutationExecutor.call(userId, () -> transactionTemplate.execute(status -> {
+            UserId id = new UserId(userId);
+            int held = pointRepository.holdIfAvailable(id, amount);
+            // hot 계정은 분할 행에 쌓인 충전을 모은 뒤 한 번 더 시도
+            if (held == 0 && hotAccounts.sweep(id) > 0) {
+                held = pointRepository.holdIfAvailable(id, amount);
+            }
+            if (held == 0) {
+                return Result.of(pointRepository.findByUserId(id).isPresent() ? Outcome.OUT_OF_POINT : Outcome.NOT_FOUND, null);
+            }
+            PointHold hold = pointHoldRepository.save(new PointHold(UUID.randomUUID().toString(), id, amount, reference, expiresAt));
+            pointBalanceCache.invalidate(id);
+            new PointHeld(hold).publishAfterCommit();
+            return Result.of(Outcome.OK, hold);
+        }));
+        if (result.outcome == Outcome.OK) {
+            wheel.schedule(result.hold.getId(), userId, expiresAt);
+        }
+        pointMetrics.operation("hold", outcomeTag(result.outcome));
+        return result;
+    }
+
+    // amount 가 null 이면 예약한 만큼 모두 확정. 예약보다 적게 확정하면 나머지는 풀린다.
+    public Result capture(String holdId, Integer amount) {
+        Optional<PointHold> found = pointHoldRepository.findById(holdId);
+        if (!found.isPresent()) {
+            return Result.of(Outcome.NOT_FOUND, null);
+        }
+        PointHold hold = found.get();
+        int captured = amount == null ? hold.getAmount() : amount;
+        if (captured <= 0 || captured > hold.getAmount()) {
+            return Result.of(Outcome.INVALID, hold);
+        }
+        Result result = pointMutationExecutor.call(hold.getUserId().getValue(), () -> transactionTemplate.execute(status -> {
+            long now = System.currentTimeMillis();
+            if (pointHoldRepository.transition(holdId, PointHold.Status.HELD, PointHold.Status.CAPTURED, now) == 0) {
+                return Result.of(Outcome.NOT_HELD, pointHoldRepository.findById(holdId).orElse(hold));
+            }
+            UserId userId = hold.getUserId();
+            if (pointRepository.captureHeld(userId, hold.getAmount(), captured) == 0) {
+                // heldPoint 는 HELD 예약 합계와 같아야 한다 — 어긋났으면 상태 전이까지 되돌린다
+                throw new IllegalStateException("예약 포인트가 맞지 않습니다: holdId=" + holdId);
+            }
+            pointBalanceCache.invalidate(userId);
+            pointGrants.consume(userId, captured);
+            PointLedgerEntry.append(userId, -captured, PointLedgerEntry.EntryType.CAPTURE, holdId);
+            pointProjection.applyDelta(userId, -captured);
+            pointGrants.expireReleased(userId, now);
+
+            hold.setStatus(PointHold.Status.CAPTURED);
+            hold.setCompletedAt(now);
+            PointCaptured pointCaptured = new PointCaptured(hold);
+            pointCaptured.setCaptured(captured);
+            pointCaptured.publishAfterCommit();
+            return Result.of(Outcome.OK, hold);
+        }));
+        if (result.outcome == Outcome.OK) {
+            wheel.cancel(holdId);
+        }
+        pointMetrics.operation("hold_capture", outcomeTag(result.outcome));
+        return result;
+    }
+
+    public Result release(String holdId) {
+        Result result = finish(holdId, PointHold.Status.RELEASED, false);
+        pointMetrics.operation("hold_release", outcomeTag(result.outcome));
+        return result;
+    }
+
+    // --- 만료 ---
+
+    @Scheduled(fixedDelayString = "${point.hold.tick-ms:1000}")
+    public void tick() {
+        List<HoldExpiryWheel.Entry> due = wheel.advance(System.currentTimeMillis());
+        for (HoldExpiryWheel.Entry entry : due) {
+            expire(entry.holdId);
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${point.hold.overdue-check-ms:60000}",
+        fixedDelayString = "${point.hold.overdue-check-ms:60000}"
+    )
+    public void scheduledExpireOverdue() {
+        try {
+            expireOverdue();
+        } catch (Exception e) {
+            logger.error("PointHolds: 만료 누락 예약 처리 실패 (다음 주기에 재시도): {}", e.getMessage(), e);
+        }
+    }
+
+    // 휠에 없는 만료 예약 (재기동 전에 만든 예약, 다른 인스턴스의 예약). 이미 처리된 예약은 조건부 UPDATE 에서 걸러진다.
+    public int expireOverdue() {
+        int expired = 0;
+        List<Object[]> overdue;
+        do {
+            overdue = pointHoldRepository.findExpiring(
+                PointHold.Status.HELD, System.currentTimeMillis(), PageRequest.of(0, overdueBatch)
+            );
+            for (Object[] row : overdue) {
+                if (expire((String) row[0])) {
+                    expired++;
+                }
+            }
+            // 다른 인스턴스가 동시에 만료 중이면 같은 행을 다시 읽을 수 있으므로 한 건도 못 고친 페이지에서 멈춘다
+        } while (overdue.size() == overdueBatch && expired > 0);
+        if (expired > 0) {
+            logger.info("만료 누락 예약 처리: {}건", expired);
+        }
+        return expired;
+    }
+
+    private boolean expire(String holdId) {
+        try {
+            Result result = finish(holdId, PointHold.Status.EXPIRED, true);
+            if (result.outcome == Outcome.OK) {
+                pointMetrics.operation("hold_expire", "ok");
+                return true;
+            }
+        } catch (Exception e) {
+            // 다음 expireOverdue 에서 다시 시도한다
+            logger.error("포인트 예약 만료 처리 중 오류 발생: holdId={}, {}", holdId, e.getMessage(), e);
+            pointMetrics.operation("hold_expire", "error");
+        }
+        return false;
+    }
+
+    // HELD → RELEASED/EXPIRED: 잔액은 그대로 두고 예약분만 푼다
+    private Result finish(String holdId, PointHold.Status to, boolean blocking) {
+        Optional<PointHold> found = pointHoldRepository.findById(holdId);
+        if (!found.isPresent()) {
+            return Result.of(Outcome.NOT_FOUND, null);
+        }
+        PointHold hold = found.get();
+        if (hold.getStatus() != PointHold.Status.HELD) {
+            return Result.of(Outcome.NOT_HELD, hold);
+        }
+        String userId = hold.getUserId().getValue();
+        Result result = blocking
+            ? pointMutationExecutor.callBlocking(userId, () -> transactionTemplate.execute(status -> doFinish(hold, to)))
+            : pointMutationExecutor.call(userId, () -> transactionTemplate.execute(status -> doFinish(hold, to)));
+        if (result.outcome == Outcome.OK) {
+            wheel.cancel(holdId);
+        }
+        return result;
+    }
+
+    private Result doFinish(PointHold hold, PointHold.Status to) {
+        long now = System.currentTimeMillis();
+        if (pointHoldRepository.transition(hold.getId(), PointHold.Status.HELD, to, now) == 0) {
+            return Result.of(Outcome.NOT_HELD, pointHoldRepository.findById(hold.getId()).orElse(hold));
+        }
+        if (pointRepository.releaseHeld(hold.getUserId(), hold.getAmount()) == 0) {
+            throw new IllegalStateException("예약 포인트가 맞지 않습니다: holdId=" + hold.getId());
+        }
+        pointBalanceCache.invalidate(hold.getUserId());
+        pointGrants.expireReleased(hold.getUserId(), now);
+
+        hold.setStatus(to);
+        hold.setCompletedAt(now);
+        PointReleased pointReleased = new PointReleased(hold);
+        pointReleased.setReason(to == PointHold.Status.EXPIRED ? "expired" : "released");
+        pointReleased.publishAfterCommit();
+        return Result.of(Outcome.OK, hold);
+    }
+
+    private static String outcomeTag(Outcome outcome) {
+        return outcome.name().toLowerCase();
+    }
+
+    public static final class Result {
+
+        private final Outcome outcome;
+        private final PointHold hold;
+
+        private Result(Outcome outcome, PointHold hold) {
+            this.outcome = outcome;
+            this.hold = hold;
+        }
+
+        static Result of(Outcome outcome, PointHold hold) {
+            return new Result(outcome, hold);
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public PointHold getHold() { return hold; }
+    }
+}
+//>>> DDD / Two-Phase Reservation
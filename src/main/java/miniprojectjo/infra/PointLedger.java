@@ -0,0 +1,196 @@
+package miniprojectjo.infra;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import miniprojectjo.domain.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< DDD / Domain Service
+// 원장 기반 잔액 계산: 최신 스냅샷 + 이후 원장 합계.
+// 주기적으로 새 원장이 생긴 사용자만 스냅샷을 추가하여 조회 비용을 상수로 유지하고,
+// 전체 재구축은 원장 id 구간을 나누어 병렬로 합산한다.
+// 스냅샷은 settle 시간이 지난 원장까지만 포함하여, 늦게 커밋되는 트랜잭션의 원장을 건너뛰지 않는다.
+@Component
+public class PointLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointLedger.class);
+
+    private static final int WRITE_CHUNK = 1000;
+
+    // 시퀀스 값을 INSERT 안에서 발급받아 원장 배치 INSERT 를 한 번의 왕복으로 처리
+    private static final String APPEND_SQL =
+        "insert into point_ledger_table (id, user_id_value, delta, type, event_id, created_at) " +
+        "values (next value for point_ledger_seq, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PointLedgerRepository ledgerRepository;
+    private final PointSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long settleMillis;
+    private final long rebuildChunkSize;
+    private final int rebuildParallelism;
+
+    // 이 id 까지의 원장은 모두 스냅샷에 반영되어 있다
+    private volatile long watermark = -1L;
+
+    @Autowired
+    public PointLedger(
+        JdbcTemplate jdbcTemplate,
+        PointLedgerRepository ledgerRepository,
+        PointSnapshotRepository snapshotRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${point.ledger.settle-seconds:60}") long settleSeconds,
+        @Value("${point.ledger.rebuild-chunk-size:100000}") long rebuildChunkSize,
+        @Value("${point.ledger.rebuild-parallelism:4}") int rebuildParallelism
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settleMillis = settleSeconds * 1000;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    // 여러 원장을 JDBC 배치로 추가 (Point 행 잠금 이후, 같은 트랜잭션에서 호출)
+    public void appendAll(List<PointLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (PointLedgerEntry entry : entries) {
+            args.add(new Object[] {
+                entry.getUserId().getValue(),
+                entry.getDelta(),
+                entry.getType().name(),
+                entry.getEventId(),
+                entry.getCreatedAt(),
+            });
+        }
+        jdbcTemplate.batchUpdate(APPEND_SQL, args);
+    }
+
+    public long balanceOf(UserId userId) {
+        return snapshotRepository.findTopByUserIdOrderByLastEntryIdDesc(userId)
+            .map(snapshot -> snapshot.getBalance() + ledgerRepository.sumAfter(userId, snapshot.getLastEntryId()))
+            .orElseGet(() -> ledgerRepository.sumAfter(userId, 0L));
+    }
+
+    @Scheduled(fixedDelayString = "${point.ledger.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        try {
+            long fromId = currentWatermark();
+            Long toId = ledgerRepository.findMaxIdCreatedBefore(System.currentTimeMillis() - settleMillis);
+            if (toId == null || toId <= fromId) {
+                return;
+            }
+            List<Object[]> deltas = ledgerRepository.sumByUserBetween(fromId, toId);
+            for (int i = 0; i < deltas.size(); i += WRITE_CHUNK) {
+                List<Object[]> chunk = deltas.subList(i, Math.min(i + WRITE_CHUNK, deltas.size()));
+                transactionTemplate.executeWithoutResult(status -> appendSnapshots(chunk));
+            }
+            watermark = toId;
+            logger.info("PointLedger: 스냅샷 {}건 추가 (원장 id {} ~ {})", deltas.size(), fromId + 1, toId);
+        } catch (Exception e) {
+            logger.error("PointLedger: 스냅샷 생성 중 오류 발생: {}", e.getMessage(), e);
+        }
+    }
+
+    // 원장 전체에서 사용자별 잔액을 병렬로 다시 계산해 스냅샷으로 기록한다. 반환값은 사용자 수.
+    public int rebuildAll() throws Exception {
+        Long toId = ledgerRepository.findMaxIdCreatedBefore(System.currentTimeMillis() - settleMillis);
+        if (toId == null) {
+            return 0;
+        }
+        long chunks = toId / rebuildChunkSize + 1;
+        ForkJoinPool pool = new ForkJoinPool(rebuildParallelism);
+        Map<String, long[]> balances;
+        try {
+            balances = pool.submit(() ->
+                LongStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> sumChunk(chunk * rebuildChunkSize, Math.min((chunk + 1) * rebuildChunkSize, toId)))
+                    .reduce(PointLedger::merge)
+                    .orElseGet(HashMap::new)
+            ).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Object[]> rows = balances.entrySet().stream()
+            .map(entry -> new Object[] { entry.getKey(), entry.getValue()[0], entry.getValue()[1] })
+            .collect(Collectors.toList());
+        for (int i = 0; i < rows.size(); i += WRITE_CHUNK) {
+            List<Object[]> chunk = rows.subList(i, Math.min(i + WRITE_CHUNK, rows.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PointSnapshot> snapshots = new ArrayList<>(chunk.size());
+                for (Object[] row : chunk) {
+                    snapshots.add(new PointSnapshot(new UserId((String) row[0]), (Long) row[1], (Long) row[2]));
+                }
+                snapshotRepository.saveAll(snapshots);
+            });
+        }
+        watermark = Math.max(watermark, toId);
+        logger.info("PointLedger: 원장 재구축 완료 - 사용자 {}명, 원장 id ~ {}", rows.size(), toId);
+        return rows.size();
+    }
+
+    // 이전 스냅샷에 이번 구간 합계를 더해 새 스냅샷을 추가
+    private void appendSnapshots(List<Object[]> deltas) {
+        List<String> userIds = new ArrayList<>(deltas.size());
+        for (Object[] row : deltas) {
+            userIds.add((String) row[0]);
+        }
+        Map<String, Long> previous = new HashMap<>();
+        for (PointSnapshot snapshot : snapshotRepository.findLatestByUserIdValues(userIds)) {
+            previous.put(snapshot.getUserId().getValue(), snapshot.getBalance());
+        }
+        List<PointSnapshot> snapshots = new ArrayList<>(deltas.size());
+        for (Object[] row : deltas) {
+            String userId = (String) row[0];
+            long balance = previous.getOrDefault(userId, 0L) + ((Number) row[1]).longValue();
+            snapshots.add(new PointSnapshot(new UserId(userId), balance, (Long) row[2]));
+        }
+        snapshotRepository.saveAll(snapshots);
+    }
+
+    // [합계, 마지막 원장 id]
+    private Map<String, long[]> sumChunk(long fromId, long toId) {
+        Map<String, long[]> sums = new HashMap<>();
+        for (Object[] row : ledgerRepository.sumByUserBetween(fromId, toId)) {
+            sums.put((String) row[0], new long[] { ((Number) row[1]).longValue(), (Long) row[2] });
+        }
+        return sums;
+    }
+
+    private static Map<String, long[]> merge(Map<String, long[]> left, Map<String, long[]> right) {
+        Map<String, long[]> target = left.size() >= right.size() ? left : right;
+        Map<String, long[]> source = target == left ? right : left;
+        source.forEach((userId, sum) -> target.merge(userId, sum, (a, b) ->
+            new long[] { a[0] + b[0], Math.max(a[1], b[1]) }
+        ));
+        return target;
+    }
+
+    private long currentWatermark() {
+        if (watermark < 0) {
+            Long last = snapshotRepository.findMaxLastEntryId();
+            watermark = last == null ? 0L : last;
+        }
+        return watermark;
+    }
+}
+//>>> DDD / Domain Service
@@ -0,0 +1,41 @@
+package miniprojectjo.infra;
+
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(value = "/points/ledger")
+public class PointLedgerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointLedgerController.class);
+
+    @Autowired
+    PointLedger pointLedger;
+
+    // 1. 원장 기준 잔액 조회 (GET)
+    // 예: GET http://localhost:8084/points/ledger/{userId}/balance
+    @GetMapping("/{userId}/balance")
+    public ResponseEntity<Long> getLedgerBalance(@PathVariable String userId) {
+        logger.info("원장 잔액 조회 요청 수신: userId={}", userId);
+        return new ResponseEntity<>(pointLedger.balanceOf(new UserId(userId)), HttpStatus.OK);
+    }
+
+    // 2. 원장 전체에서 스냅샷 재구축 (POST)
+    // 예: POST http://localhost:8084/points/ledger/rebuild
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuild() {
+        logger.info("원장 재구축 요청 수신");
+        try {
+            int users = pointLedger.rebuildAll();
+            return new ResponseEntity<>("Ledger snapshots rebuilt for " + users + " users", HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("원장 재구축 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to rebuild ledger: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
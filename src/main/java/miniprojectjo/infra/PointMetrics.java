@@ -0,0 +1,119 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import miniprojectjo.PointApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+//<<< Observability / Domain Metrics
+// 포인트 도메인 메트릭 (/actuator/prometheus 로 노출, 히스토그램 설정은 application.yml 의 management.metrics)
+// - point.events.handled{type}            : 수신 이벤트 처리 시간
+// - point.events.failed{type}             : 수신 이벤트 처리 실패
+// - point.events.skipped{type,reason}     : 중복(duplicate) 또는 라우팅 대상이 아닌(unrouted) 이벤트
+// - point.events.retried{type}            : 지연 재시도로 넘긴 실패 이벤트 (EventRetryScheduler)
+// - point.events.deadlettered{type,reason}: DLQ 로 보낸 이벤트 (exhausted, not_retryable, retry_queue_full, shutdown)
+// - point.events.batch                   : 배치 소비 모드에서 배치 하나의 처리 시간
+// - point.events.published{type}          : 브로커로 발행한 이벤트
+// - point.operations{operation,outcome}   : API 처리 결과 (ok, out_of_point, not_found, invalid, error ...)
+// - point.domain{operation}               : Point 도메인 로직 처리 시간
+// - point.repository{method,exception}    : PointRepository 호출 시간 (RepositoryMetricsAspect)
+// 태그 값은 코드에 정의된 이벤트 타입/메서드/결과로만 채운다 (userId 등 사용자별 값은 태그로 쓰지 않는다).
+// 미터는 처음 쓰일 때 한 번 등록하고 맵에 보관하여, 호출마다 Id 를 만들어 레지스트리를 조회하지 않는다.
+@Component
+public class PointMetrics {
+
+    static final String UNROUTED = "unrouted";
+
+    // 컨텍스트 없이 쓰일 때(벤치마크 등)는 글로벌 레지스트리 (등록된 레지스트리가 없으면 기록하지 않음)
+    private static final PointMetrics GLOBAL = new PointMetrics(Metrics.globalRegistry);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PointMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static PointMetrics instance() {
+        ApplicationContext context = PointApplication.applicationContext;
+        return context == null ? GLOBAL : context.getBean(PointMetrics.class);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public Timer eventHandled(String type) {
+        return timer("point.events.handled", "type", type);
+    }
+
+    public Timer batchHandled() {
+        return timer("point.events.batch");
+    }
+
+    public void eventFailed(String type) {
+        counter("point.events.failed", "type", type).increment();
+    }
+
+    public void eventDuplicate(String type) {
+        counter("point.events.skipped", "type", type, "reason", "duplicate").increment();
+    }
+
+    // 외부에서 들어온 임의의 type 값이 태그가 되지 않도록 하나로 묶는다
+    public void eventUnrouted() {
+        counter("point.events.skipped", "type", UNROUTED, "reason", UNROUTED).increment();
+    }
+
+    public void eventRetried(String type) {
+        counter("point.events.retried", "type", type).increment();
+    }
+
+    public void eventDeadLettered(String type, String reason) {
+        counter("point.events.deadlettered", "type", type, "reason", reason).increment();
+    }
+
+    public void eventPublished(String type) {
+        counter("point.events.published", "type", type).increment();
+    }
+
+    public void operation(String operation, String outcome) {
+        operation(operation, outcome, 1);
+    }
+
+    public void operation(String operation, String outcome, long count) {
+        counter("point.operations", "operation", operation, "outcome", outcome).increment(count);
+    }
+
+    public void recordDomain(String operation, Runnable action) {
+        timer("point.domain", "operation", operation).record(action);
+    }
+
+    Timer repositoryCall(String method, String exception) {
+        return timer("point.repository", "method", method, "exception", exception);
+    }
+
+    private Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(key(name, tags), key -> Timer.builder(name).tags(tags).register(meterRegistry));
+    }
+
+    private Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(key(name, tags), key -> Counter.builder(name).tags(tags).register(meterRegistry));
+    }
+
+    private static String key(String name, String[] tags) {
+        StringBuilder key = new StringBuilder(name);
+        for (int i = 1; i < tags.length; i += 2) {
+            key.append('|').append(tags[i]);
+        }
+        return key.toString();
+    }
+}
+//>>> Observability / Domain Metrics
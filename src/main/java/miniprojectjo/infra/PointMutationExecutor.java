@@ -0,0 +1,200 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//<<< Concurrency / Striped Mutation Executor
+// 같은 사용자의 포인트 변경(REST 차감, PointBought/SubscriptionApplied/PointRegistered 반영)을 한 줄로 세워 실행한다.
+// - userId 해시로 고른 스트라이프(전용 스레드 1개 + 크기가 정해진 큐)에서 순서대로 실행 → 같은 행을 두고 DB 락 대기/데드락이 생기지 않는다
+// - 다른 사용자는 다른 스트라이프에서 병렬로 실행된다. 한 사용자에게 몰린 요청은 그 스트라이프만 밀리고,
+//   락을 기다리며 커넥션을 붙잡는 스레드가 없으므로 다른 사용자의 처리량에 영향을 주지 않는다.
+// - 큐가 가득 차면: call 은 RejectedExecutionException (REST 는 503 + Retry-After), callBlocking 은 자리가 날 때까지 기다린다 (Kafka 소비 속도 조절)
+// - submitBlocking 은 큐에 넣기만 하고 결과를 기다리지 않는다 (hot 계정 충전을 여러 스트라이프에서 동시에 실행, PolicyHandler)
+// 작업은 호출 스레드의 트랜잭션 밖(스트라이프 스레드)에서 실행되므로, 작업 안에서 직접 트랜잭션을 연다.
+// 호출 스레드는 트랜잭션(커넥션) 없이 기다려야 한다 — 커넥션을 쥔 채 기다리면 풀이 고갈되어 스트라이프가 멈출 수 있다.
+@Component
+public class PointMutationExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointMutationExecutor.class);
+
+    private final Stripe[] stripes;
+    private final Counter rejected;
+    private volatile boolean closed;
+
+    @Autowired
+    public PointMutationExecutor(
+        MeterRegistry meterRegistry,
+        @Value("${point.mutation.stripes:16}") int stripeCount,
+        @Value("${point.mutation.queue-capacity:1000}") int queueCapacity
+    ) {
+        if (stripeCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("point.mutation.stripes, point.mutation.queue-capacity 는 0보다 커야 합니다.");
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(i, queueCapacity);
+        }
+        this.rejected = Counter.builder("point.mutation.rejected")
+            .description("스트라이프 큐가 가득 차 거절된 포인트 변경")
+            .register(meterRegistry);
+        Gauge.builder("point.mutation.queued", this, PointMutationExecutor::queued)
+            .description("스트라이프 큐에서 실행을 기다리는 포인트 변경 수")
+            .register(meterRegistry);
+    }
+
+    // userId 는 UserId 값 (이벤트의 messageKey 와 같은 값). 큐가 가득 차면 기다리지 않고 RejectedExecutionException
+    public <T> T call(String userId, Supplier<T> task) {
+        return call(userId, task, false);
+    }
+
+    // 큐에 자리가 날 때까지 기다린다
+    public <T> T callBlocking(String userId, Supplier<T> task) {
+        return call(userId, task, true);
+    }
+
+    // 큐에 자리가 날 때까지 기다려 넣고, 실행 결과는 기다리지 않는다. 작업의 예외는 돌려준 future 로 전달된다
+    public <T> CompletableFuture<T> submitBlocking(String userId, Supplier<T> task) {
+        if (userId == null || Thread.currentThread() instanceof StripeThread) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+        try {
+            return enqueue(userId, task, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 변경 대기 중 인터럽트되었습니다.", e);
+        }
+    }
+
+    public int queued() {
+        int queued = 0;
+        for (Stripe stripe : stripes) {
+            queued += stripe.queue.size();
+        }
+        return queued;
+    }
+
+    private <T> T call(String userId, Supplier<T> task, boolean waitForCapacity) {
+        // 키가 없거나 이미 스트라이프 안(중첩 호출)이면 그 자리에서 실행 — 스트라이프끼리 서로 기다리는 교착을 막는다
+        if (userId == null || Thread.currentThread() instanceof StripeThread) {
+            return task.get();
+        }
+        try {
+            return enqueue(userId, task, waitForCapacity).get();
+        } catch (InterruptedException e) {
+            // 이미 큐에 들어간 작업은 그대로 실행된다
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 변경 대기 중 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(String userId, Supplier<T> task, boolean waitForCapacity) throws InterruptedException {
+        Stripe stripe = stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable job = () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        if (closed) {
+            throw new RejectedExecutionException("포인트 변경 실행기가 종료되었습니다.");
+        }
+        if (waitForCapacity) {
+            stripe.queue.put(job);
+        } else if (!stripe.queue.offer(job)) {
+            rejected.increment();
+            throw new RejectedExecutionException("포인트 변경 대기열이 가득 찼습니다: stripe=" + stripe.index);
+        }
+        // 종료가 시작된 뒤 들어간 작업은 (아직 꺼내지지 않았다면) 되돌린다
+        if (closed && stripe.queue.remove(job)) {
+            throw new RejectedExecutionException("포인트 변경 실행기가 종료되었습니다.");
+        }
+        return result;
+    }
+
+    // 새 작업은 거절하고, 이미 큐에 들어간 작업은 마저 실행한 뒤 스트라이프 스레드가 끝난다
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Stripe {
+
+        private final int index;
+        private final BlockingQueue<Runnable> queue;
+        private final StripeThread thread;
+
+        Stripe(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new StripeThread("point-mutation-" + index, this::run);
+            thread.start();
+        }
+
+        private void run() {
+            while (!closed || !queue.isEmpty()) {
+                Runnable job;
+                try {
+                    job = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (job == null) {
+                    continue;
+                }
+                try {
+                    job.run();
+                } catch (Throwable e) {
+                    logger.error("PointMutationExecutor: 스트라이프 작업 실행 중 오류: stripe={}", index, e);
+                }
+            }
+        }
+    }
+
+    private static final class StripeThread extends Thread {
+
+        StripeThread(String name, Runnable runnable) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+}
+//>>> Concurrency / Striped Mutation Executor
@@ -0,0 +1,585 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import miniprojectjo.PointApplication;
+import miniprojectjo.domain.GetPointQuery;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.PointBought;
+import miniprojectjo.domain.PointDecreased;
+import miniprojectjo.domain.PointRegistered;
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//<<< CQRS / Read Model
+// GetPointQuery 조회용 인메모리 프로젝션. 조회(GET /points/query)는 쓰기 DB 를 읽지 않는다.
+// - 갱신: 쓰기 쪽이 반영한 변경을 커밋 후에 적용한다 (PointRegistered/PointBought 는 증감, PointDecreased 와 JPA 저장은 결과 잔액)
+// - 기동 시(이벤트 소비/웹 요청 시작 전) DB 에서 전체를 읽어 채우고, point.projection.resync-interval-ms 마다 다시 맞춘다
+//   (다른 인스턴스가 반영한 변경과 삭제된 레코드 반영). 커밋 중인 사용자의 행은 건너뛰어, 커밋 후 적용될 증감이 두 번 더해지지 않게 한다.
+// - 여러 인스턴스로 띄우면 다른 인스턴스가 반영한 변경은 최대 resync-interval-ms (+ 재동기화 소요 시간, stats 의 lastResyncMillis) 늦게 보인다.
+//   이벤트를 모든 인스턴스에서 받아 적용하지 않는 이유: PointBought/PointRegistered 는 반영 결과가 아니라 요청이다.
+//   한 컨슈머 그룹 인스턴스만 처리하고, 중복(processed_event)이나 대상 없음으로 무시될 수 있어 이벤트만으로는 잔액을 알 수 없다.
+//   더 짧은 지연이 필요하면 주기를 줄이거나 GET /points/userId/{userId} (쓰기 DB) 를 쓴다. 단일 인스턴스(kubernetes replicas: 1)면 지연이 없다.
+// - 저장 구조: 행 번호로 접근하는 원시 배열(잔액 int[], 구독 여부 byte[], subscriptionId 사전 코드 int[]) +
+//   userId → 행 번호 오픈 어드레싱 해시(int[]). 계정당 박싱된 객체 없이 userId 문자열 하나만 보관한다.
+// - 쓰기는 한 번에 하나(synchronized), 읽기는 잠그지 않는다. 행은 모든 칸을 채운 뒤 size 를 올려 공개하고,
+//   배열이 커질 때는 새 Table 을 만들어 통째로 바꾼다. 조회는 약간 오래된 값을 볼 수 있다 (최종 일관성).
+@Component
+public class PointProjection implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointProjection.class);
+
+    private static final int NONE = -1;
+    private static final byte SUBSCRIBE_UNKNOWN = 0;
+    private static final byte SUBSCRIBE_FALSE = 1;
+    private static final byte SUBSCRIBE_TRUE = 2;
+    private static final byte DELETED = 4;
+
+    // hot 계정은 분할 행(point_shard_table) 합계를 더한다
+    private static final String SCAN_SQL =
+        "select p.user_id_value, p.point + coalesce(s.total, 0), p.is_subscribe, p.subscription_id_value " +
+        "from point_table p left join (" +
+        "select user_id_value, sum(point) total from point_shard_table group by user_id_value" +
+        ") s on s.user_id_value = p.user_id_value " +
+        "where p.user_id_value is not null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int resyncFetchSize;
+
+    private volatile Table table = new Table(1024);
+    // subscriptionId 사전 (코드 → 값, 값 → 코드). 쓰기 잠금 안에서만 추가한다.
+    private volatile String[] subscriptionValues = new String[16];
+    private final Map<String, Integer> subscriptionCodes = new ConcurrentHashMap<>();
+    private long subscriptionBytes;
+    // 커밋 중인(beforeCommit ~ afterCompletion) 사용자별 트랜잭션 수
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private int epoch;
+    private volatile long lastResyncAt;
+    private volatile long lastResyncMillis;
+    private volatile boolean running;
+
+    @Autowired
+    public PointProjection(
+        JdbcTemplate jdbcTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${point.projection.resync-fetch-size:1000}") int resyncFetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resyncFetchSize = resyncFetchSize;
+        Gauge.builder("point.projection.accounts", this, projection -> projection.table.live)
+            .description("조회 프로젝션에 올라온 계정 수")
+            .register(meterRegistry);
+        Gauge.builder("point.projection.bytes", this, PointProjection::estimatedBytes)
+            .description("조회 프로젝션이 차지하는 메모리 (추정)")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public static PointProjection instance() {
+        return PointApplication.applicationContext.getBean(PointProjection.class);
+    }
+
+    // --- 쓰기 쪽에서 호출 (반영한 트랜잭션 안에서, 커밋 후 적용) ---
+
+    // 레코드가 없으면 생성, 있으면 충전 (PolicyHandler 의 upsert 와 같은 규칙)
+    public void applyRegistered(PointRegistered pointRegistered) {
+        String userId = pointRegistered.getSubscriberInfo();
+        int amount = pointRegistered.getPointAmount();
+        byte subscribe = pointRegistered.isHasSubscription() ? SUBSCRIBE_TRUE : SUBSCRIBE_FALSE;
+        afterCommit(userId, () -> add(userId, amount, true, subscribe));
+    }
+
+    // 레코드가 있을 때만 증가 (Point.purchasePoint 와 같은 규칙)
+    public void applyBought(PointBought pointBought) {
+        applyDelta(pointBought.getUserId(), pointBought.getPoint());
+    }
+
+    public void applyDelta(UserId userId, int delta) {
+        if (userId == null || userId.getValue() == null) {
+            return;
+        }
+        String value = userId.getValue();
+        afterCommit(value, () -> add(value, delta, false, SUBSCRIBE_UNKNOWN));
+    }
+
+    // 레코드가 없어 새로 만든 경우 (대량 소비의 신규 생성)
+    public void applyCreated(UserId userId, int point, boolean isSubscribe) {
+        String value = userId.getValue();
+        byte subscribe = isSubscribe ? SUBSCRIBE_TRUE : SUBSCRIBE_FALSE;
+        afterCommit(value, () -> add(value, point, true, subscribe));
+    }
+
+    // PointDecreased 는 차감 후 잔액을 담고 있다
+    public void applyDecreased(PointDecreased pointDecreased) {
+        if (pointDecreased.getUserId() == null || pointDecreased.getUserId().getValue() == null) {
+            return;
+        }
+        String userId = pointDecreased.getUserId().getValue();
+        int balance = pointDecreased.getPoint();
+        afterCommit(userId, () -> setBalance(userId, balance));
+    }
+
+    // JPA 로 저장된 Point (Spring Data REST, 대량 처리 등)
+    public void applySaved(Point point) {
+        if (point.getUserId() == null || point.getUserId().getValue() == null) {
+            return;
+        }
+        String userId = point.getUserId().getValue();
+        int balance = point.getPoint();
+        byte subscribe = subscribeOf(point.getIsSubscribe());
+        String subscriptionId = point.getSubscriptionId() == null ? null : point.getSubscriptionId().getValue();
+        afterCommit(userId, () -> put(userId, balance, subscribe, subscriptionId));
+    }
+
+    public void applyRemoved(Point point) {
+        if (point.getUserId() == null || point.getUserId().getValue() == null) {
+            return;
+        }
+        String userId = point.getUserId().getValue();
+        afterCommit(userId, () -> remove(userId));
+    }
+
+    private void afterCommit(String userId, Runnable apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inFlight.merge(userId, 1, Integer::sum);
+                counted = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                        apply.run();
+                    }
+                } finally {
+                    if (counted) {
+                        inFlight.computeIfPresent(userId, (key, count) -> count == 1 ? null : count - 1);
+                    }
+                }
+            }
+        });
+    }
+
+    // --- 조회 ---
+
+    // GetPointQuery 조건 (null 은 조건 없음): userId, point(정확히), minPoint/maxPoint, isSubscribe, subscriptionId
+    public QueryResult query(GetPointQuery query, int offset, int limit) {
+        Table snapshot = table;
+        QueryResult result = new QueryResult();
+        int subscriptionFilter = NONE;
+        if (query.getSubscriptionId() != null && query.getSubscriptionId().getValue() != null) {
+            Integer code = subscriptionCodes.get(query.getSubscriptionId().getValue());
+            if (code == null) {
+                return result;
+            }
+            subscriptionFilter = code;
+        }
+
+        int size = snapshot.size;
+        int from = 0;
+        int to = size;
+        if (query.getUserId() != null && query.getUserId().getValue() != null) {
+            int row = snapshot.find(query.getUserId().getValue());
+            if (row < 0) {
+                return result;
+            }
+            from = row;
+            to = row + 1;
+        }
+        for (int row = from; row < to; row++) {
+            byte flags = snapshot.flags[row];
+            int balance = snapshot.balances[row];
+            if ((flags & DELETED) != 0) {
+                continue;
+            }
+            if (query.getPoint() != null && balance != query.getPoint()) {
+                continue;
+            }
+            if (query.getMinPoint() != null && balance < query.getMinPoint()) {
+                continue;
+            }
+            if (query.getMaxPoint() != null && balance > query.getMaxPoint()) {
+                continue;
+            }
+            if (query.getIsSubscribe() != null && (flags & 3) != subscribeOf(query.getIsSubscribe())) {
+                continue;
+            }
+            if (subscriptionFilter != NONE && snapshot.subscriptions[row] != subscriptionFilter) {
+                continue;
+            }
+            if (result.matched >= offset && result.accounts.size() < limit) {
+                int code = snapshot.subscriptions[row];
+                // 사전은 행보다 먼저 늘어나므로 행을 읽은 뒤 다시 읽는다
+                String[] subscriptions = subscriptionValues;
+                result.accounts.add(new Account(
+                    snapshot.userIds[row],
+                    balance,
+                    (flags & 3) == SUBSCRIBE_UNKNOWN ? null : (flags & 3) == SUBSCRIBE_TRUE,
+                    code == NONE || code >= subscriptions.length ? null : subscriptions[code]
+                ));
+            }
+            result.matched++;
+        }
+        return result;
+    }
+
+    // 메모리 사용량 (압축 포인터 64bit JVM 기준 추정치)
+    public Map<String, Object> stats() {
+        Table snapshot = table;
+        long bytes = estimatedBytes();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accounts", snapshot.live);
+        stats.put("rows", snapshot.size);
+        stats.put("capacity", snapshot.balances.length);
+        stats.put("subscriptionIds", subscriptionCodes.size());
+        stats.put("estimatedBytes", bytes);
+        stats.put("bytesPerAccount", snapshot.live == 0 ? 0 : bytes / snapshot.live);
+        stats.put("lastResyncAt", lastResyncAt);
+        stats.put("lastResyncMillis", lastResyncMillis);
+        return stats;
+    }
+
+    // 배열(용량 기준) + userId/subscriptionId 문자열 + 사전 맵 항목
+    long estimatedBytes() {
+        Table snapshot = table;
+        int capacity = snapshot.balances.length;
+        long arrays = array(capacity, 4)   // userIds 참조
+            + array(capacity, 4)            // balances
+            + array(capacity, 4)            // subscriptions
+            + array(capacity, 4)            // epochs
+            + array(capacity, 1)            // flags
+            + array(snapshot.slots.length, 4);
+        long dictionary = array(subscriptionValues.length, 4) + subscriptionCodes.size() * 48L + subscriptionBytes;
+        return arrays + snapshot.userIdBytes + dictionary;
+    }
+
+    // --- 재동기화 ---
+
+    @Scheduled(
+        initialDelayString = "${point.projection.resync-interval-ms:300000}",
+        fixedDelayString = "${point.projection.resync-interval-ms:300000}"
+    )
+    public void scheduledResync() {
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.error("PointProjection: 재동기화 실패 (다음 주기에 재시도): {}", e.getMessage(), e);
+        }
+    }
+
+    // DB 전체를 스트리밍으로 읽어 맞추고, DB 에 없는 계정은 지운다
+    public int resync() {
+        long started = System.currentTimeMillis();
+        int scanEpoch;
+        synchronized (this) {
+            scanEpoch = ++epoch;
+        }
+        int[] rows = new int[1];
+        List<Object[]> buffer = new ArrayList<>(resyncFetchSize);
+        jdbcTemplate.query(
+            connection -> {
+                java.sql.PreparedStatement statement = connection.prepareStatement(SCAN_SQL);
+                statement.setFetchSize(resyncFetchSize);
+                return statement;
+            },
+            resultSet -> {
+                Object isSubscribe = resultSet.getObject(3);
+                buffer.add(new Object[] {
+                    resultSet.getString(1),
+                    resultSet.getInt(2),
+                    isSubscribe == null ? SUBSCRIBE_UNKNOWN : subscribeOf(resultSet.getBoolean(3)),
+                    resultSet.getString(4),
+                });
+                if (buffer.size() >= resyncFetchSize) {
+                    rows[0] += load(buffer, scanEpoch);
+                    buffer.clear();
+                }
+            }
+        );
+        rows[0] += load(buffer, scanEpoch);
+        int removed = sweep(scanEpoch);
+        lastResyncAt = System.currentTimeMillis();
+        lastResyncMillis = lastResyncAt - started;
+        logger.info("PointProjection: 재동기화 완료 - {}건 ({}건 제거), {}ms", rows[0], removed, lastResyncMillis);
+        return rows[0];
+    }
+
+    private synchronized int load(List<Object[]> rows, int scanEpoch) {
+        for (Object[] row : rows) {
+            String userId = (String) row[0];
+            if (inFlight.containsKey(userId)) {
+                // 커밋 후 적용될 변경이 남아 있다. 값은 그대로 두고 지우지만 않게 표시만 한다.
+                int existing = table.find(userId);
+                if (existing >= 0) {
+                    table.epochs[existing] = scanEpoch;
+                }
+                continue;
+            }
+            // 스캔 시작 뒤 이벤트로 갱신된 행은 읽은 값보다 최신일 수 있으므로 그대로 둔다
+            int existing = table.find(userId);
+            if (existing >= 0 && table.epochs[existing] >= scanEpoch) {
+                continue;
+            }
+            put(userId, (Integer) row[1], (Byte) row[2], (String) row[3]);
+        }
+        return rows.size();
+    }
+
+    // 이번 재동기화에서 보지 못한 행 제거 (스캔 중에 새로 생긴 행은 epoch 가 같거나 커서 남는다)
+    private synchronized int sweep(int scanEpoch) {
+        Table current = table;
+        int removed = 0;
+        for (int row = 0; row < current.size; row++) {
+            if ((current.flags[row] & DELETED) == 0 && current.epochs[row] < scanEpoch && !inFlight.containsKey(current.userIds[row])) {
+                current.flags[row] |= DELETED;
+                current.live--;
+                removed++;
+            }
+        }
+        // 지워진 행이 많으면 새 Table 로 압축
+        if (current.size - current.live > current.size / 4) {
+            table = current.compact(current.balances.length);
+        }
+        return removed;
+    }
+
+    // --- 쓰기 (잠금 안) ---
+
+    private synchronized void add(String userId, int delta, boolean createIfAbsent, byte subscribe) {
+        int row = table.find(userId);
+        if (row >= 0 && (table.flags[row] & DELETED) == 0) {
+            table.balances[row] += delta;
+        } else if (createIfAbsent) {
+            put(userId, delta, subscribe, null);
+        }
+    }
+
+    private synchronized void setBalance(String userId, int balance) {
+        int row = table.find(userId);
+        if (row >= 0 && (table.flags[row] & DELETED) == 0) {
+            table.balances[row] = balance;
+        }
+    }
+
+    private synchronized int put(String userId, int balance, byte subscribe, String subscriptionId) {
+        int code = subscriptionId == null ? NONE : code(subscriptionId);
+        int row = table.find(userId);
+        if (row < 0) {
+            if (table.size == table.balances.length) {
+                table = table.compact(table.balances.length * 2);
+            }
+            row = table.append(userId);
+        }
+        table.balances[row] = balance;
+        table.subscriptions[row] = code;
+        table.epochs[row] = epoch;
+        if ((table.flags[row] & DELETED) != 0) {
+            table.live++;
+        }
+        table.flags[row] = subscribe;
+        return row;
+    }
+
+    private synchronized void remove(String userId) {
+        int row = table.find(userId);
+        if (row >= 0 && (table.flags[row] & DELETED) == 0) {
+            table.flags[row] |= DELETED;
+            table.live--;
+        }
+    }
+
+    private int code(String subscriptionId) {
+        Integer code = subscriptionCodes.get(subscriptionId);
+        if (code != null) {
+            return code;
+        }
+        code = subscriptionCodes.size();
+        String[] values = subscriptionValues;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[code] = subscriptionId;
+        subscriptionValues = values;
+        subscriptionCodes.put(subscriptionId, code);
+        subscriptionBytes += stringBytes(subscriptionId);
+        return code;
+    }
+
+
+    private static byte subscribeOf(Boolean isSubscribe) {
+        return isSubscribe == null ? SUBSCRIBE_UNKNOWN : isSubscribe ? SUBSCRIBE_TRUE : SUBSCRIBE_FALSE;
+    }
+
+    private static long array(int length, int elementBytes) {
+        return align(16L + (long) length * elementBytes);
+    }
+
+    // String 객체(24) + byte[] (LATIN1 기준)
+    private static long stringBytes(String value) {
+        return 24L + array(value.length(), 1);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // --- 기동 시 채우기 ---
+
+    // 이벤트 소비(입력 바인딩)와 웹 요청보다 먼저 시작한다
+    @Override
+    public void start() {
+        resync();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // 행 번호로 접근하는 열 배열 + userId → 행 번호 해시 (선형 탐사, 부하율 0.5 이하)
+    private static final class Table {
+
+        final String[] userIds;
+        final int[] balances;
+        final int[] subscriptions;
+        final int[] epochs;
+        final byte[] flags;
+        final int[] slots;
+        volatile int size;
+        int live;
+        long userIdBytes;
+
+        Table(int capacity) {
+            userIds = new String[capacity];
+            balances = new int[capacity];
+            subscriptions = new int[capacity];
+            epochs = new int[capacity];
+            flags = new byte[capacity];
+            // capacity 의 2배 이상인 2의 거듭제곱
+            slots = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 2];
+        }
+
+        // 잠금 없이 읽는 쪽도 부른다. size 를 먼저 읽어야 그 전에 공개된 행의 userId 가 보인다:
+        // slots 는 size 보다 먼저 쓰이므로, 아직 공개되지 않은 행(row >= size)이 보일 수 있다 → 없는 것으로 본다.
+        // 새 행은 탐사 사슬의 빈 칸에만 들어가므로, 그 뒤에 이미 공개된 행이 있을 수 없다.
+        int find(String userId) {
+            int published = size;
+            int mask = slots.length - 1;
+            for (int slot = spread(userId.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int row = slots[slot] - 1;
+                if (row < 0 || row >= published) {
+                    return NONE;
+                }
+                if (userIds[row].equals(userId)) {
+                    return row;
+                }
+            }
+        }
+
+        // 모든 칸을 채운 뒤 size 를 올려 읽는 쪽에 공개한다
+        int append(String userId) {
+            int row = size;
+            userIds[row] = userId;
+            subscriptions[row] = NONE;
+            flags[row] = DELETED;
+            index(userId, row);
+            userIdBytes += stringBytes(userId);
+            size = row + 1;
+            return row;
+        }
+
+        private void index(String userId, int row) {
+            int mask = slots.length - 1;
+            int slot = spread(userId.hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = row + 1;
+        }
+
+        // 지워진 행을 빼고 capacity 크기의 새 Table 로 복사
+        Table compact(int capacity) {
+            Table copy = new Table(Math.max(capacity, live * 2));
+            for (int row = 0; row < size; row++) {
+                if ((flags[row] & DELETED) != 0) {
+                    continue;
+                }
+                int target = copy.append(userIds[row]);
+                copy.balances[target] = balances[row];
+                copy.subscriptions[target] = subscriptions[row];
+                copy.epochs[target] = epochs[row];
+                copy.flags[target] = flags[row];
+                copy.live++;
+            }
+            return copy;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    public static class QueryResult {
+        private int matched;
+        private final List<Account> accounts = new ArrayList<>();
+
+        public int getMatched() { return matched; }
+        public List<Account> getAccounts() { return accounts; }
+    }
+
+    public static class Account {
+        private final String userId;
+        private final int point;
+        private final Boolean isSubscribe;
+        private final String subscriptionId;
+
+        Account(String userId, int point, Boolean isSubscribe, String subscriptionId) {
+            this.userId = userId;
+            this.point = point;
+            this.isSubscribe = isSubscribe;
+            this.subscriptionId = subscriptionId;
+        }
+
+        public String getUserId() { return userId; }
+        public int getPoint() { return point; }
+        public Boolean getIsSubscribe() { return isSubscribe; }
+        public String getSubscriptionId() { return subscriptionId; }
+    }
+}
+//>>> CQRS / Read Model
@@ -0,0 +1,64 @@
+package miniprojectjo.infra;
+
+import java.util.Map;
+import miniprojectjo.domain.GetPointQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+//<<< CQRS / Read Model
+// GetPointQuery 조회는 PointProjection(메모리)에서만 답한다. 쓰기 DB 를 읽지 않으므로 최근 변경이 조금 늦게 보일 수 있다.
+@RestController
+@RequestMapping(value = "/points/query")
+public class PointQueryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointQueryController.class);
+
+    @Autowired
+    PointProjection pointProjection;
+
+    @Value("${point.projection.max-limit:1000}")
+    int maxLimit;
+
+    // 1. 조건 조회 (GET)
+    // 예: GET http://localhost:8084/points/query?minPoint=100&maxPoint=500&isSubscribe=true&subscriptionId=sub-1&offset=0&limit=100
+    // 조건: userId, point, minPoint, maxPoint, isSubscribe, subscriptionId (id 는 프로젝션에 없으므로 지원하지 않음)
+    @GetMapping
+    public ResponseEntity<PointProjection.QueryResult> query(
+        @ModelAttribute GetPointQuery query,
+        @RequestParam(defaultValue = "0") int offset,
+        @RequestParam(defaultValue = "100") int limit
+    ) {
+        logger.debug("프로젝션 조회 요청 수신: {}, offset={}, limit={}", query, offset, limit);
+        if (query.getId() != null || offset < 0 || limit <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(pointProjection.query(query, offset, Math.min(limit, maxLimit)), HttpStatus.OK);
+    }
+
+    // 2. 프로젝션 상태/메모리 사용량 (GET)
+    // 예: GET http://localhost:8084/points/query/stats
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return new ResponseEntity<>(pointProjection.stats(), HttpStatus.OK);
+    }
+
+    // 3. DB 에서 다시 맞추기 (POST)
+    // 예: POST http://localhost:8084/points/query/resync
+    @PostMapping("/resync")
+    public ResponseEntity<String> resync() {
+        logger.info("프로젝션 재동기화 요청 수신");
+        try {
+            int accounts = pointProjection.resync();
+            return new ResponseEntity<>("Projection resynced from " + accounts + " rows", HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("프로젝션 재동기화 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to resync projection: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
+//>>> CQRS / Read Model
@@ -0,0 +1,68 @@
+package miniprojectjo.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+//<<< Reconciliation / Event Stream vs DB
+// 이벤트 로그와 DB 잔액 정합성 점검 (PointReconciliation). 점검은 백그라운드에서 한 번에 하나만 돈다.
+@RestController
+@RequestMapping(value = "/points/reconcile")
+public class PointReconcileController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointReconcileController.class);
+
+    @Autowired
+    PointReconciliation pointReconciliation;
+
+    @Autowired
+    PointMetrics pointMetrics;
+
+    // 1. 점검 시작 (POST)
+    // 예: POST http://localhost:8084/points/reconcile?file=events-20261018.ndjson
+    //     POST http://localhost:8084/points/reconcile?file=events-20261018.ndjson&correct=true   (불일치 잔액을 이벤트 기준으로 보정)
+    // file 은 point.reconcile.dir 아래 파일 이름. 시작하면 202, 이미 점검 중이면 409
+    @PostMapping
+    public ResponseEntity<Object> start(@RequestParam String file, @RequestParam(defaultValue = "false") boolean correct) {
+        logger.info("정합성 점검 요청 수신: file={}, correct={}", file, correct);
+        try {
+            if (!pointReconciliation.start(file, correct)) {
+                pointMetrics.operation("reconcile", "busy");
+                return new ResponseEntity<>("Reconciliation already running", HttpStatus.CONFLICT);
+            }
+            return new ResponseEntity<>("Reconciliation started: " + file, HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            logger.warn("정합성 점검 요청 거부: {}", e.getMessage());
+            pointMetrics.operation("reconcile", "invalid");
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("정합성 점검 시작 중 오류 발생: {}", e.getMessage(), e);
+            return new ResponseEntity<>("Failed to start reconciliation: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // 2. 마지막 점검 결과 (GET)
+    // 예: GET http://localhost:8084/points/reconcile
+    // 점검 중이면 running=true 와 이전 결과. 결과가 없으면 report 는 null
+    @GetMapping
+    public ResponseEntity<Status> status() {
+        return new ResponseEntity<>(new Status(pointReconciliation.isRunning(), pointReconciliation.lastReport().orElse(null)), HttpStatus.OK);
+    }
+
+    static class Status {
+        private final boolean running;
+        private final PointReconciliation.Report report;
+
+        Status(boolean running, PointReconciliation.Report report) {
+            this.running = running;
+            this.report = report;
+        }
+
+        public boolean isRunning() { return running; }
+        public PointReconciliation.Report getReport() { return report; }
+    }
+}
+//>>> Reconciliation / Event Stream vs DB
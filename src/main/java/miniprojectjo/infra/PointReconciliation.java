@@ -0,0 +1,705 @@
+package miniprojectjo.infra;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import javax.annotation.PreDestroy;
+import miniprojectjo.domain.Point;
+import miniprojectjo.domain.PointAdjusted;
+import miniprojectjo.domain.PointLedgerEntry;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.UserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< Reconciliation / Event Stream vs DB
+// 발행된 이벤트 로그(NDJSON, 한 줄에 이벤트 1건)로 사용자별 잔액을 다시 계산해 Point_table 과 비교한다.
+// - 로그 읽기: 파일을 줄 경계에 맞춘 구간으로 나눠 ForkJoinPool 에서 구간마다 UserDeltaMap 을 만들고, 파일 순서대로 합친다
+//   (PointDecreased / PointExpired 는 변경 후 잔액을 담으므로 기준 잔액으로, 나머지는 증감으로 계산)
+// - DB 읽기: 로그에서 뽑은 userId 표본으로 키 범위를 나눠 범위마다 키셋 페이지로 병렬 조회 (분할 행 합계 포함)
+// - 결과: 일치/불일치/DB 에 없는/로그에 없는 사용자 수와 불일치 표본. correct=true 면 불일치 사용자를 이벤트 기준으로 보정한다
+//   (사용자 스트라이프에서 한 트랜잭션: 잔액, 원장 ADJUST, PointAdjusted 이벤트)
+// - 로그에 없는 사용자(missingInLog)는 계산할 잔액이 없으므로 불일치로 보지 않고 보정하지도 않는다
+// - 줄이는 보정은 예약(heldPoint)된 포인트를 건드리지 않는다: 사용 가능 잔액까지만 줄이고 나머지는 clamped 로 센다
+// - 보정은 행을 잠근 뒤 잔액(분할 행 포함)을 다시 읽어, 비교할 때 읽은 값과 다르면 건너뛰고 changed 로 센다
+// 로그는 점검 시점까지 반영이 끝난 구간이어야 한다. 이후에 바뀐 사용자는 불일치로 보인다.
+@Component
+public class PointReconciliation {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointReconciliation.class);
+
+    // 구간/범위 수 = 병렬도 × SPLITS (작업이 고르지 않아도 스레드가 놀지 않도록)
+    private static final int SPLITS = 4;
+    private static final int SAMPLE_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PointRepository pointRepository;
+    private final PointBalanceCache pointBalanceCache;
+    private final PointProjection pointProjection;
+    private final PointGrants pointGrants;
+    private final PointMutationExecutor pointMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final PointMetrics pointMetrics;
+    private final JsonFactory jsonFactory;
+    private final Path directory;
+    private final int parallelism;
+    private final int pageSize;
+    private final int reportLimit;
+    private final int maxCorrections;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "point-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<Report> last = new AtomicReference<>();
+
+    @Autowired
+    public PointReconciliation(
+        JdbcTemplate jdbcTemplate,
+        PointRepository pointRepository,
+        PointBalanceCache pointBalanceCache,
+        PointProjection pointProjection,
+        PointGrants pointGrants,
+        PointMutationExecutor pointMutationExecutor,
+        TransactionTemplate transactionTemplate,
+        PointMetrics pointMetrics,
+        ObjectMapper objectMapper,
+        @Value("${point.reconcile.dir:reconcile}") String directory,
+        @Value("${point.reconcile.parallelism:4}") int parallelism,
+        @Value("${point.reconcile.page-size:5000}") int pageSize,
+        @Value("${point.reconcile.report-limit:100}") int reportLimit,
+        @Value("${point.reconcile.max-corrections:10000}") int maxCorrections
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pointRepository = pointRepository;
+        this.pointBalanceCache = pointBalanceCache;
+        this.pointProjection = pointProjection;
+        this.pointGrants = pointGrants;
+        this.pointMutationExecutor = pointMutationExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.pointMetrics = pointMetrics;
+        this.jsonFactory = objectMapper.getFactory();
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        this.reportLimit = reportLimit;
+        this.maxCorrections = maxCorrections;
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<Report> lastReport() {
+        return Optional.ofNullable(last.get());
+    }
+
+    // point.reconcile.dir 아래 파일 이름만 받는다. 점검이 이미 돌고 있으면 false
+    public boolean start(String file, boolean correct) {
+        Path path = resolve(file);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                run(path, correct);
+            } catch (Exception e) {
+                logger.error("PointReconciliation: 점검 실패 ({}): {}", path, e.getMessage(), e);
+                Report failed = new Report(path.getFileName().toString(), correct);
+                failed.error = e.getMessage();
+                last.set(failed);
+                pointMetrics.operation("reconcile", "error");
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    Path resolve(String file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("file 이 필요합니다");
+        }
+        Path path = directory.resolve(file).normalize();
+        if (!path.getParent().equals(directory)) {
+            throw new IllegalArgumentException("점검 디렉터리 밖의 파일입니다: " + file);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("파일이 없습니다: " + file);
+        }
+        return path;
+    }
+
+    Report run(Path path, boolean correct) throws Exception {
+        long started = System.currentTimeMillis();
+        Report report = new Report(path.getFileName().toString(), correct);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            UserDeltaMap expected = pool.submit(new ReadLog(path, split(path), report)).get();
+            report.logUsers = expected.size();
+            logger.info("PointReconciliation: 이벤트 {}건, 사용자 {}명 ({}ms)", report.events, report.logUsers, System.currentTimeMillis() - started);
+
+            List<String> bounds = bounds(expected);
+            List<Correction> corrections = Collections.synchronizedList(new ArrayList<>());
+            pool.submit(() ->
+                IntStream.rangeClosed(0, bounds.size())
+                    .parallel()
+                    .forEach(range -> compareRange(
+                        expected,
+                        range == 0 ? null : bounds.get(range - 1),
+                        range == bounds.size() ? null : bounds.get(range),
+                        report,
+                        correct ? corrections : null
+                    ))
+            ).get();
+
+            // 이벤트는 있는데 DB 에 없는 사용자
+            for (int row = 0; row < expected.size(); row++) {
+                if (!expected.seen(row) && expected.expected(row) != 0) {
+                    report.addDrift(expected.userId(row), expected.expected(row), null, reportLimit);
+                }
+            }
+            if (correct) {
+                report.corrected = correct(corrections, report);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        report.elapsedMillis = System.currentTimeMillis() - started;
+        logger.info(
+            "PointReconciliation: 완료 - DB {}명, 일치 {}, 불일치 {} (합계 {}), DB 없음 {}, 로그 없음 {}, 보정 {} (제한 {}, 변경되어 건너뜀 {}) ({}ms)",
+            report.dbUsers, report.matched, report.drifted, report.absoluteDrift, report.missingInDb, report.missingInLog,
+            report.corrected, report.clamped, report.changed, report.elapsedMillis
+        );
+        pointMetrics.operation("reconcile", report.drifted + report.missingInDb + report.missingInLog.get() == 0 ? "ok" : "drift");
+        last.set(report);
+        return report;
+    }
+
+    // --- 이벤트 로그 ---
+
+    // 파일을 줄 경계에 맞춰 자른 구간 시작 위치들 (마지막 원소는 파일 크기)
+    private long[] split(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int ranges = (int) Math.max(1, Math.min((long) parallelism * SPLITS, size / (1 << 20) + 1));
+            long[] starts = new long[ranges + 1];
+            starts[ranges] = size;
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            for (int i = 1; i < ranges; i++) {
+                long position = Math.max(starts[i - 1], size * i / ranges);
+                starts[i] = nextLine(channel, position, size, buffer);
+            }
+            return starts;
+        }
+    }
+
+    private static long nextLine(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    // 구간 [from, to) 를 반씩 나눠 읽고, 앞 구간 → 뒤 구간 순서로 합친다
+    private class ReadLog extends RecursiveTask<UserDeltaMap> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+        private final long[] starts;
+        private final int from;
+        private final int to;
+        private final Report report;
+
+        ReadLog(Path path, long[] starts, Report report) {
+            this(path, starts, 0, starts.length - 1, report);
+        }
+
+        private ReadLog(Path path, long[] starts, int from, int to, Report report) {
+            this.path = path;
+            this.starts = starts;
+            this.from = from;
+            this.to = to;
+            this.report = report;
+        }
+
+        @Override
+        protected UserDeltaMap compute() {
+            if (to - from == 1) {
+                try {
+                    return readRange(path, starts[from], starts[to], report);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ReadLog earlier = new ReadLog(path, starts, from, middle, report);
+            earlier.fork();
+            UserDeltaMap later = new ReadLog(path, starts, middle, to, report).compute();
+            return UserDeltaMap.merge(earlier.join(), later);
+        }
+    }
+
+    private UserDeltaMap readRange(Path path, long start, long end, Report report) throws IOException {
+        UserDeltaMap map = new UserDeltaMap((int) Math.min(1 << 20, (end - start) / 64 + 16));
+        long events = 0;
+        long skipped = 0;
+        byte[] buffer = new byte[1 << 16];
+        byte[] line = new byte[4096];
+        int length = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.wrap(buffer);
+            long position = start;
+            while (position < end) {
+                chunk.clear();
+                chunk.limit((int) Math.min(buffer.length, end - position));
+                int read = channel.read(chunk, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b != '\n') {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    } else if (length > 0) {
+                        if (apply(map, line, length)) {
+                            events++;
+                        } else {
+                            skipped++;
+                        }
+                        length = 0;
+                    }
+                }
+            }
+        }
+        // 마지막 줄에 줄바꿈이 없는 경우
+        if (length > 0) {
+            if (apply(map, line, length)) {
+                events++;
+            } else {
+                skipped++;
+            }
+        }
+        report.events.addAndGet(events);
+        report.skippedLines.addAndGet(skipped);
+        return map;
+    }
+
+    // 잔액과 관계없는 이벤트(PointHeld 등)도 읽은 것으로 센다. 해석할 수 없는 줄만 false
+    private boolean apply(UserDeltaMap map, byte[] line, int length) {
+        String eventType = null;
+        String userId = null;
+        String subscriberInfo = null;
+        long point = 0;
+        long pointAmount = 0;
+        long captured = 0;
+        long delta = 0;
+        try (JsonParser parser = jsonFactory.createParser(line, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "eventType":
+                        eventType = parser.getValueAsString();
+                        break;
+                    case "userId":
+                        userId = userIdValue(parser, token);
+                        break;
+                    case "subscriberInfo":
+                        subscriberInfo = parser.getValueAsString();
+                        break;
+                    case "point":
+                        point = parser.getValueAsLong();
+                        break;
+                    case "pointAmount":
+                        pointAmount = parser.getValueAsLong();
+                        break;
+                    case "captured":
+                        captured = parser.getValueAsLong();
+                        break;
+                    case "delta":
+                        delta = parser.getValueAsLong();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        if (eventType == null) {
+            return false;
+        }
+        if ("PointRegistered".equals(eventType)) {
+            userId = subscriberInfo;
+        }
+        if (userId == null) {
+            // 사용자 없는 이벤트는 잔액과 관계없는 종류만 허용
+            return !isBalanceEvent(eventType);
+        }
+        switch (eventType) {
+            case "PointRegistered":
+                map.add(userId, pointAmount);
+                break;
+            case "PointBought":
+                map.add(userId, point);
+                break;
+            case "PointCaptured":
+                map.add(userId, -captured);
+                break;
+            case "PointAdjusted":
+                map.add(userId, delta);
+                break;
+            case "PointDecreased":
+            case "PointExpired":
+                map.reset(userId, point);
+                break;
+            default:
+                // PointHeld, PointReleased, OutOfPoint 등은 잔액을 바꾸지 않는다
+        }
+        return true;
+    }
+
+    private static boolean isBalanceEvent(String eventType) {
+        switch (eventType) {
+            case "PointRegistered":
+            case "PointBought":
+            case "PointCaptured":
+            case "PointAdjusted":
+            case "PointDecreased":
+            case "PointExpired":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // UserId 는 {"value":"u1"} 로 직렬화된다 (문자열도 받는다)
+    private static String userIdValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("value".equals(field)) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    // --- DB 비교 ---
+
+    // 로그의 userId 표본을 정렬해 DB 를 나눌 경계를 고른다 (DB 의 userId 분포가 로그와 비슷하다고 본다)
+    private List<String> bounds(UserDeltaMap expected) {
+        int ranges = parallelism * SPLITS;
+        int size = expected.size();
+        if (size < ranges * 2) {
+            return Collections.emptyList();
+        }
+        int step = Math.max(1, size / SAMPLE_SIZE);
+        List<String> sample = new ArrayList<>(size / step + 1);
+        for (int row = 0; row < size; row += step) {
+            sample.add(expected.userId(row));
+        }
+        Collections.sort(sample);
+        List<String> bounds = new ArrayList<>(ranges - 1);
+        for (int i = 1; i < ranges; i++) {
+            String bound = sample.get(sample.size() * i / ranges);
+            if (bounds.isEmpty() || bound.compareTo(bounds.get(bounds.size() - 1)) > 0) {
+                bounds.add(bound);
+            }
+        }
+        return bounds;
+    }
+
+    // userId 범위 [from, to) 를 키셋 페이지로 읽어 비교 (null 은 끝 없음)
+    private void compareRange(UserDeltaMap expected, String from, String to, Report report, List<Correction> corrections) {
+        String select = "select p.user_id_value, p.point + coalesce((select sum(s.point) from point_shard_table s " +
+            "where s.user_id_value = p.user_id_value), 0) from point_table p ";
+        String upper = to == null ? "" : " and p.user_id_value < ?";
+        String order = " order by p.user_id_value limit ?";
+        // 첫 페이지만 from 자신을 포함한다
+        String firstSql = select + "where p.user_id_value >= ?" + upper + order;
+        String nextSql = select + "where p.user_id_value > ?" + upper + order;
+        String cursor = from == null ? "" : from;
+        boolean first = true;
+        long rows = 0;
+        long matched = 0;
+        while (true) {
+            String sql = first ? firstSql : nextSql;
+            String after = cursor;
+            String[] lastKey = new String[1];
+            int[] count = new int[1];
+            long[] pageMatched = new long[1];
+            jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    statement.setFetchSize(pageSize);
+                    int index = 1;
+                    statement.setString(index++, after);
+                    if (to != null) {
+                        statement.setString(index++, to);
+                    }
+                    statement.setInt(index, pageSize);
+                    return statement;
+                },
+                resultSet -> {
+                    String userId = resultSet.getString(1);
+                    long actual = resultSet.getLong(2);
+                    int row = expected.find(userId);
+                    if (row == UserDeltaMap.NONE) {
+                        // 로그가 모르는 사용자: 0 으로 보고 보정하면 잔액을 지우게 된다
+                        report.missingInLog.incrementAndGet();
+                    } else {
+                        expected.markSeen(row);
+                        long balance = expected.expected(row);
+                        if (balance == actual) {
+                            pageMatched[0]++;
+                        } else {
+                            report.addDrift(userId, balance, actual, reportLimit);
+                            if (corrections != null) {
+                                corrections.add(new Correction(userId, actual, balance - actual));
+                            }
+                        }
+                    }
+                    lastKey[0] = userId;
+                    count[0]++;
+                }
+            );
+            first = false;
+            rows += count[0];
+            matched += pageMatched[0];
+            if (count[0] < pageSize) {
+                break;
+            }
+            cursor = lastKey[0];
+        }
+        report.dbUsers.addAndGet(rows);
+        report.matched.addAndGet(matched);
+    }
+
+    // --- 보정 ---
+
+    private int correct(List<Correction> corrections, Report report) {
+        int limit = Math.min(corrections.size(), maxCorrections);
+        if (limit < corrections.size()) {
+            logger.warn("PointReconciliation: 보정 대상 {}명 중 {}명만 보정합니다 (point.reconcile.max-corrections)", corrections.size(), limit);
+        }
+        int corrected = 0;
+        for (Correction correction : corrections.subList(0, limit)) {
+            try {
+                Boolean done = pointMutationExecutor.callBlocking(correction.userId, () -> transactionTemplate.execute(status -> adjust(correction, report)));
+                if (Boolean.TRUE.equals(done)) {
+                    corrected++;
+                }
+            } catch (Exception e) {
+                logger.error("PointReconciliation: 보정 실패 userId={}: {}", correction.userId, e.getMessage(), e);
+            }
+        }
+        pointMetrics.operation("reconcile_correct", "ok", corrected);
+        return corrected;
+    }
+
+    private boolean adjust(Correction correction, Report report) {
+        UserId userId = new UserId(correction.userId);
+        int delta = Math.toIntExact(correction.delta);
+        // Point 행을 먼저 잠근다 (차감 경로와 같은 순서). DB 에 없는 사용자는 만들지 않는다 (보고서의 missingInDb 로만 알린다)
+        List<Point> locked = pointRepository.findAllForUpdateByUserIdValues(Collections.singletonList(correction.userId));
+        if (locked.isEmpty()) {
+            return false;
+        }
+        // 비교할 때 읽은 잔액은 잠금 없이 읽은 값이다. 그 사이 차감/충전/예약 확정/만료가 있었으면
+        // 보정량이 맞지 않으므로 (두 번 반영하거나 되돌리게 된다) 건너뛰고 changed 로 센다
+        long balance = HotAccounts.instance().currentBalanceOf(locked.get(0));
+        if (balance != correction.actual) {
+            logger.info("PointReconciliation: 비교 이후 잔액이 바뀌어 보정하지 않습니다 userId={}, 비교 {} → 현재 {}", correction.userId, correction.actual, balance);
+            report.changed.incrementAndGet();
+            return false;
+        }
+        if (delta < 0) {
+            Point current = locked.get(0);
+            // hot 계정은 분할 행을 모아 Point 에서 줄인다
+            if (current.getShards() != null && current.getShards() > 0 && current.availablePoint() < -delta && HotAccounts.instance().sweep(userId) > 0) {
+                current = pointRepository.findByUserId(userId).orElse(current);
+            }
+            int available = Math.max(0, current.availablePoint());
+            if (-delta > available) {
+                logger.warn("PointReconciliation: 예약분 때문에 보정을 줄입니다 userId={}, 보정 {} → {}", correction.userId, delta, -available);
+                report.clamped.incrementAndGet();
+                delta = -available;
+            }
+            if (delta == 0) {
+                return false;
+            }
+        }
+        if (pointRepository.increasePoint(userId, delta) == 0) {
+            return false;
+        }
+        pointBalanceCache.invalidate(userId);
+        if (delta < 0) {
+            pointGrants.consume(userId, -delta);
+        }
+        PointLedgerEntry.append(userId, delta, PointLedgerEntry.EntryType.ADJUST, null);
+        pointProjection.applyDelta(userId, delta);
+
+        Point point = pointRepository.findByUserId(userId).orElseThrow(IllegalStateException::new);
+        PointAdjusted pointAdjusted = new PointAdjusted(point);
+        pointAdjusted.setDelta(delta);
+        pointAdjusted.setPoint(HotAccounts.instance().currentBalanceOf(point));
+        pointAdjusted.setSource(report.file);
+        pointAdjusted.publishAfterCommit();
+        return true;
+    }
+
+    private static class Correction {
+
+        final String userId;
+        // 비교할 때 읽은 잔액 (분할 행 합계 포함)
+        final long actual;
+        final long delta;
+
+        Correction(String userId, long actual, long delta) {
+            this.userId = userId;
+            this.actual = actual;
+            this.delta = delta;
+        }
+    }
+
+    // --- 결과 ---
+
+    public static class Report {
+
+        private final String file;
+        private final boolean correct;
+        private final long startedAt = System.currentTimeMillis();
+        private long elapsedMillis;
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong skippedLines = new AtomicLong();
+        private int logUsers;
+        private final AtomicLong dbUsers = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private long drifted;
+        private long missingInDb;
+        private long absoluteDrift;
+        private final AtomicLong missingInLog = new AtomicLong();
+        private int corrected;
+        private final AtomicLong clamped = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private String error;
+        private final List<Drift> samples = new ArrayList<>();
+
+        Report(String file, boolean correct) {
+            this.file = file;
+            this.correct = correct;
+        }
+
+        // actual == null 이면 DB 에 없는 사용자
+        synchronized void addDrift(String userId, long expected, Long actual, int limit) {
+            if (actual == null) {
+                missingInDb++;
+            } else {
+                drifted++;
+            }
+            absoluteDrift += Math.abs(expected - (actual == null ? 0 : actual));
+            if (samples.size() < limit) {
+                samples.add(new Drift(userId, expected, actual));
+            }
+        }
+
+        public String getFile() { return file; }
+        public boolean isCorrect() { return correct; }
+        public long getStartedAt() { return startedAt; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public long getEvents() { return events.get(); }
+        public long getSkippedLines() { return skippedLines.get(); }
+        public int getLogUsers() { return logUsers; }
+        public long getDbUsers() { return dbUsers.get(); }
+        public long getMatched() { return matched.get(); }
+        public synchronized long getDrifted() { return drifted; }
+        public synchronized long getMissingInDb() { return missingInDb; }
+        public synchronized long getAbsoluteDrift() { return absoluteDrift; }
+        public long getMissingInLog() { return missingInLog.get(); }
+        public int getCorrected() { return corrected; }
+        public long getClamped() { return clamped.get(); }
+        public long getChanged() { return changed.get(); }
+        public String getError() { return error; }
+        public synchronized List<Drift> getSamples() { return new ArrayList<>(samples); }
+    }
+
+    public static class Drift {
+
+        private final String userId;
+        private final long expected;
+        private final Long actual;
+
+        Drift(String userId, long expected, Long actual) {
+            this.userId = userId;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public String getUserId() { return userId; }
+        public long getExpected() { return expected; }
+        // DB 에 없으면 null
+        public Long getActual() { return actual; }
+    }
+}
+//>>> Reconciliation / Event Stream vs DB
@@ -0,0 +1,30 @@
+package miniprojectjo.infra;
+
+import miniprojectjo.domain.PointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+//<<< Observability / Readiness
+// readiness 그룹용: 커넥션만 보는 db 지표와 달리 JPA 리포지토리로 실제 조회가 되는지 확인한다
+// (startup 프로파일에서 리포지토리/EntityManagerFactory 초기화가 지연되어도 준비된 뒤에만 UP).
+@Component
+public class PointStoreHealthIndicator extends AbstractHealthIndicator {
+
+    private final PointRepository pointRepository;
+
+    @Autowired
+    public PointStoreHealthIndicator(PointRepository pointRepository) {
+        super("포인트 저장소 조회 실패");
+        this.pointRepository = pointRepository;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        // 기본 키 조회 한 번 (행이 없어도 쿼리가 실행되면 정상)
+        pointRepository.existsById("");
+        builder.up();
+    }
+}
+//>>> Observability / Readiness
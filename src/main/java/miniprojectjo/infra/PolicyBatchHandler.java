@@ -0,0 +1,323 @@
+package miniprojectjo.infra;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import io.micrometer.core.instrument.Timer;
+import miniprojectjo.config.kafka.KafkaProcessor;
+import miniprojectjo.domain.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+//<<< Clean Arch / Inbound Adaptor
+// 배치 소비 모드 (point.batch.enabled=true, 'batch' 프로파일)
+// 바인더가 N건 또는 T ms 단위로 묶어 전달한 메시지를 사용자별로 합산하여 한 트랜잭션에 JDBC 배치로 반영한다.
+// 이 모드에서는 PolicyHandler 대신 이 핸들러가 event-in 을 소비한다.
+// 처리에 실패한 메시지는 PolicyHandler 와 같이 EventRetryScheduler 로 지연 재시도하고, 끝내 실패하면 DLQ 로 보낸다.
+@Service
+@ConditionalOnProperty(name = "point.batch.enabled", havingValue = "true")
+public class PolicyBatchHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PolicyBatchHandler.class);
+
+    private static final String CHARGE_SQL =
+        "update point_table set point = point + ? where user_id_value = ?";
+    private static final String INSERT_SQL =
+        "insert into point_table (id, point, is_subscribe, user_id_value) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventDeduplicator eventDeduplicator;
+    private final PointBalanceCache pointBalanceCache;
+    private final PointLedger pointLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final PointMetrics pointMetrics;
+    private final EventLagTracker eventLagTracker;
+    private final PointProjection pointProjection;
+    private final PointGrants pointGrants;
+    private final EventRetryScheduler eventRetryScheduler;
+
+    @Autowired
+    public PolicyBatchHandler(
+        JdbcTemplate jdbcTemplate,
+        EventDeduplicator eventDeduplicator,
+        PointBalanceCache pointBalanceCache,
+        PointLedger pointLedger,
+        PlatformTransactionManager transactionManager,
+        PointMetrics pointMetrics,
+        EventLagTracker eventLagTracker,
+        PointProjection pointProjection,
+        PointGrants pointGrants,
+        EventRetryScheduler eventRetryScheduler,
+        @Value("${spring.cloud.stream.bindings.event-in.consumer.batch-mode:false}") boolean batchMode
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventDeduplicator = eventDeduplicator;
+        this.pointBalanceCache = pointBalanceCache;
+        this.pointLedger = pointLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pointMetrics = pointMetrics;
+        this.eventLagTracker = eventLagTracker;
+        this.pointProjection = pointProjection;
+        this.pointGrants = pointGrants;
+        this.eventRetryScheduler = eventRetryScheduler;
+        if (!batchMode) {
+            logger.warn("PolicyBatchHandler: event-in 이 batch-mode 가 아니므로 메시지를 1건씩 받습니다 ('batch' 프로파일 권장)");
+        }
+    }
+
+    @StreamListener(KafkaProcessor.INPUT)
+    public void wheneverBatch(Message<?> batch) {
+        List<?> payloads;
+        List<?> headers;
+        if (batch.getPayload() instanceof List) {
+            payloads = (List<?>) batch.getPayload();
+            headers = batch.getHeaders().get(KafkaHeaders.BATCH_CONVERTED_HEADERS, List.class);
+            if (headers == null || headers.size() != payloads.size()) {
+                // 메시지별 헤더가 없으면 type 을 알 수 없다. ack 하지 않고 바인더 오류 처리로 넘긴다
+                throw new IllegalStateException("배치 메시지 헤더가 없습니다 (batch-mode 바인딩이 아닌가?): " + payloads.size() + "건");
+            }
+        } else {
+            // batch-mode 없이 point.batch.enabled=true 로 켠 경우: 단건 메시지의 헤더를 그대로 쓴다
+            payloads = Collections.singletonList(batch.getPayload());
+            headers = Collections.singletonList(batch.getHeaders());
+        }
+
+        logger.info("PolicyBatchHandler: 배치 수신 - {}건", payloads.size());
+        Timer.Sample sample = pointMetrics.start();
+        Fold fold = new Fold();
+        List<AbstractEvent> decoded = new ArrayList<>(payloads.size());
+        // 합산 반영에 실패한 이벤트를 재시도/DLQ 로 넘길 때 쓰는 원본 메시지
+        Map<Object, Message<?>> sources = new IdentityHashMap<>();
+
+        for (int i = 0; i < payloads.size(); i++) {
+            String type = typeOf(headers, i);
+            Object payload = payloads.get(i);
+            Object contentType = header(headers, i, MessageHeaders.CONTENT_TYPE);
+            try {
+                if ("PointBought".equals(type)) {
+                    PointBought pointBought = EventCodec.decode(payload, contentType, PointBought.class);
+                    fold.add(pointBought);
+                    sources.put(pointBought, messageAt(payloads, headers, i));
+                    decoded.add(pointBought);
+                } else if ("PointRegistered".equals(type)) {
+                    PointRegistered pointRegistered = EventCodec.decode(payload, contentType, PointRegistered.class);
+                    fold.add(pointRegistered);
+                    sources.put(pointRegistered, messageAt(payloads, headers, i));
+                    decoded.add(pointRegistered);
+                } else if ("SubscriptionApplied".equals(type)) {
+                    // 차감은 순서에 영향을 받으므로 앞서 모인 충전분을 먼저 반영한 뒤 단건 처리
+                    apply(fold, sources);
+                    fold = new Fold();
+                    SubscriptionApplied subscriptionApplied = EventCodec.decode(payload, contentType, SubscriptionApplied.class);
+                    String eventId = subscriptionApplied.getId() == null ? null : String.valueOf(subscriptionApplied.getId());
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (eventDeduplicator.markProcessed("SubscriptionApplied", eventId)) {
+                            Point.decreasePoint(subscriptionApplied);
+                        }
+                    });
+                    decoded.add(subscriptionApplied);
+                } else if ("OutOfPoint".equals(type)) {
+                    logger.warn("⚠️ 포인트 부족 이벤트 수신 (배치): {}", EventHeaders.asString(payload));
+                } else {
+                    pointMetrics.eventUnrouted();
+                }
+            } catch (Exception e) {
+                // 처리 대상 type 에서만 예외가 날 수 있으므로 type 태그는 제한된 값이다
+                logger.error("PolicyBatchHandler: {} 메시지 처리 중 오류 발생: {}", type, e.getMessage(), e);
+                pointMetrics.eventFailed(type);
+                eventRetryScheduler.retryOrDeadLetter(messageAt(payloads, headers, i), type, e, this::wheneverBatch);
+            }
+        }
+        apply(fold, sources);
+        sample.stop(pointMetrics.batchHandled());
+        // 배치의 반영이 모두 커밋된 뒤 (트랜잭션 밖) 생성→반영 지연 기록
+        for (AbstractEvent event : decoded) {
+            eventLagTracker.record(event.getClass().getSimpleName(), event);
+        }
+    }
+
+    // 합산된 변경분을 한 트랜잭션에 반영하고, 실패하면 메시지 단위로 다시 처리한다.
+    // 메시지 단위로도 실패하면 원본 메시지를 재시도/DLQ 로 넘긴다 (재시도는 1건짜리 배치로 이 핸들러에 다시 들어온다).
+    private void apply(Fold fold, Map<Object, Message<?>> sources) {
+        if (fold.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyFolded(fold.withoutDuplicates(eventDeduplicator)));
+            logger.info("PolicyBatchHandler: {}건을 {}명 사용자에 일괄 반영 완료", fold.events.size(), fold.deltas.size());
+        } catch (Exception e) {
+            logger.error("PolicyBatchHandler: 일괄 반영 실패, 메시지 단위로 재처리: {}", e.getMessage(), e);
+            for (Object event : fold.events) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> applySingle(event));
+                } catch (Exception single) {
+                    String type = event.getClass().getSimpleName();
+                    logger.error("PolicyBatchHandler: 메시지 처리 실패: {} - {}", event, single.getMessage(), single);
+                    pointMetrics.eventFailed(type);
+                    eventRetryScheduler.retryOrDeadLetter(sources.get(event), type, single, this::wheneverBatch);
+                }
+            }
+        }
+    }
+
+    private void applyFolded(Fold fold) {
+        List<UserId> userIds = new ArrayList<>(fold.deltas.keySet());
+        List<Object[]> args = new ArrayList<>(userIds.size());
+        for (UserId userId : userIds) {
+            args.add(new Object[] { fold.deltas.get(userId), userId.getValue() });
+            pointBalanceCache.invalidate(userId);
+        }
+        int[] counts = jdbcTemplate.batchUpdate(CHARGE_SQL, args);
+
+        // 레코드가 없는 사용자 중 PointRegistered 가 있었던 경우만 신규 생성 (PointBought 는 기존과 같이 무시)
+        Set<UserId> updated = new HashSet<>();
+        Set<UserId> created = new HashSet<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            UserId userId = userIds.get(i);
+            PointRegistered registered = fold.registrations.get(userId);
+            if (counts[i] > 0) {
+                updated.add(userId);
+                pointProjection.applyDelta(userId, fold.deltas.get(userId));
+            } else if (registered != null) {
+                created.add(userId);
+                pointProjection.applyCreated(userId, fold.createDeltas.get(userId), registered.isHasSubscription());
+                inserts.add(new Object[] {
+                    java.util.UUID.randomUUID().toString(),
+                    fold.createDeltas.get(userId),
+                    registered.isHasSubscription(),
+                    userId.getValue(),
+                });
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+
+        // 실제로 반영된 이벤트마다 원장 1행 (합산하지 않음)
+        List<PointLedgerEntry> entries = new ArrayList<>();
+        for (PointLedgerEntry entry : fold.entries) {
+            if (updated.contains(entry.getUserId())) {
+                entries.add(entry);
+            }
+        }
+        for (PointLedgerEntry entry : fold.createEntries) {
+            if (created.contains(entry.getUserId())) {
+                entries.add(entry);
+            }
+        }
+        pointLedger.appendAll(entries);
+        // 만료되는 지급분 (가입 지급, 구매)
+        pointGrants.grantAll(entries);
+    }
+
+    private void applySingle(Object event) {
+        Fold single = new Fold();
+        single.add(event);
+        applyFolded(single.withoutDuplicates(eventDeduplicator));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<?> messageAt(List<?> payloads, List<?> headers, int index) {
+        return MessageBuilder.withPayload(payloads.get(index))
+            .copyHeaders((Map<String, Object>) headers.get(index))
+            .build();
+    }
+
+    private static String typeOf(List<?> headers, int index) {
+        return EventHeaders.type(header(headers, index, EventHeaders.TYPE));
+    }
+
+    private static Object header(List<?> headers, int index, String name) {
+        return ((Map<?, ?>) headers.get(index)).get(name);
+    }
+
+    // 사용자별 증감 합산
+    private static class Fold {
+
+        final Map<UserId, Integer> deltas = new LinkedHashMap<>();
+        // 레코드가 없을 때 생성 시점의 잔액 (PointRegistered 와 그 이후의 PointBought 합)
+        final Map<UserId, Integer> createDeltas = new LinkedHashMap<>();
+        final Map<UserId, PointRegistered> registrations = new LinkedHashMap<>();
+        final List<Object> events = new ArrayList<>();
+        // 레코드가 있을 때 / 새로 생성할 때 남길 원장
+        final List<PointLedgerEntry> entries = new ArrayList<>();
+        final List<PointLedgerEntry> createEntries = new ArrayList<>();
+
+        void add(PointBought pointBought) {
+            deltas.merge(pointBought.getUserId(), pointBought.getPoint(), Integer::sum);
+            PointLedgerEntry entry = new PointLedgerEntry(
+                pointBought.getUserId(),
+                pointBought.getPoint(),
+                PointLedgerEntry.EntryType.PURCHASE,
+                pointBought.getId()
+            );
+            entries.add(entry);
+            if (registrations.containsKey(pointBought.getUserId())) {
+                createDeltas.merge(pointBought.getUserId(), pointBought.getPoint(), Integer::sum);
+                createEntries.add(entry);
+            }
+            events.add(pointBought);
+        }
+
+        void add(PointRegistered pointRegistered) {
+            UserId userId = new UserId(pointRegistered.getSubscriberInfo());
+            deltas.merge(userId, pointRegistered.getPointAmount(), Integer::sum);
+            createDeltas.merge(userId, pointRegistered.getPointAmount(), Integer::sum);
+            registrations.putIfAbsent(userId, pointRegistered);
+            PointLedgerEntry entry = new PointLedgerEntry(
+                userId,
+                pointRegistered.getPointAmount(),
+                PointLedgerEntry.EntryType.SIGNUP_GRANT,
+                pointRegistered.getId()
+            );
+            entries.add(entry);
+            createEntries.add(entry);
+            events.add(pointRegistered);
+        }
+
+        void add(Object event) {
+            if (event instanceof PointBought) {
+                add((PointBought) event);
+            } else {
+                add((PointRegistered) event);
+            }
+        }
+
+        // 이미 반영된 이벤트를 걸러낸 합산 (처리 기록은 현재 트랜잭션에 남는다)
+        Fold withoutDuplicates(EventDeduplicator eventDeduplicator) {
+            Fold fresh = new Fold();
+            for (Object event : events) {
+                boolean first = event instanceof PointBought
+                    ? eventDeduplicator.markProcessed("PointBought", ((PointBought) event).getId())
+                    : eventDeduplicator.markProcessed("PointRegistered", ((PointRegistered) event).getId());
+                if (first) {
+                    fresh.add(event);
+                }
+            }
+            return fresh;
+        }
+
+        boolean isEmpty() {
+            return events.isEmpty();
+        }
+    }
+}
+//>>> Clean Arch / Inbound Adaptor
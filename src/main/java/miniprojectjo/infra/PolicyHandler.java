@@ -1,21 +1,44 @@
 package miniprojectjo.infra;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import io.micrometer.core.instrument.Timer;
 import javax.transaction.Transactional;
 // import com.fasterxml.jackson.databind.DeserializationFeature; // Not used, remove
-// import com.fasterxml.jackson.databind.ObjectMapper; // Not used, remove
 // import javax.naming.NameParser; // Duplicate, remove (already imported once)
 import miniprojectjo.config.kafka.KafkaProcessor;
 import miniprojectjo.domain.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.StreamListener;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger; // Logger import
 import org.slf4j.LoggerFactory; // LoggerFactory import
 
 //<<< Clean Arch / Inbound Adaptor
+// 배치 소비 모드(point.batch.enabled=true)에서는 PolicyBatchHandler 가 대신 소비한다.
+// event-in 의 유일한 진입점은 wheneverEvent 이다. type 헤더를 한 번 읽어 미리 만든 라우팅 표에서 처리 메서드를 찾고,
+// 페이로드는 EventCodec 이 contentType 헤더에 맞춰 바로 역직렬화한다 (리스너별 SpEL condition 평가/String 변환 없음).
+// 처리 메서드는 이벤트의 messageKey(userId) 스트라이프에서 자체 트랜잭션으로 실행된다 (PointMutationExecutor).
+// 스트라이프 큐가 가득 차면 자리가 날 때까지 소비 스레드가 기다린다.
+// hot 계정(HotAccounts)의 PointBought 는 userId#분할 키로 여러 스트라이프에 넘기고 기다리지 않는다 (수동 커밋일 때만).
+// 오프셋은 InOrderAcks 가 받은 순서대로, 처리가 끝난(또는 재시도/DLQ 로 넘긴) 메시지까지만 ack 한다.
+// 처리 메서드는 예외를 삼키지 않는다. 실패한 메시지는 EventRetryScheduler 가 소비 스레드를 막지 않고 지연 재시도하며,
+// 끝내 실패하면 DLQ 로 보낸다 (재시도/DLQ 재주입도 process 를 거친다).
 @Service
 @Transactional
+@ConditionalOnProperty(name = "point.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class PolicyHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(PolicyHandler.class); // 로거 인스턴스 생성
@@ -23,17 +46,141 @@ public class PolicyHandler {
     @Autowired
     PointRepository pointRepository;
 
+    @Autowired
+    EventDeduplicator eventDeduplicator;
+
+    @Autowired
+    PointBalanceCache pointBalanceCache;
+
+    @Autowired
+    PointMetrics pointMetrics;
+
+    @Autowired
+    EventLagTracker eventLagTracker;
+
+    @Autowired
+    PointMutationExecutor pointMutationExecutor;
+
+    @Autowired
+    PointProjection pointProjection;
+
+    @Autowired
+    HotAccounts hotAccounts;
+
+    @Autowired
+    PointGrants pointGrants;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EventRetryScheduler eventRetryScheduler;
+
+    // 수동 커밋일 때 소비 스레드 하나가 기다리지 않고 넘겨 둘 수 있는 hot 계정 충전 수
+    @Value("${point.hot.max-in-flight:64}")
+    int maxInFlight;
+
+    // 소비 스레드별 ack 순서 (한 스레드가 맡은 파티션의 메시지는 받은 순서대로 ack 한다)
+    private final ThreadLocal<InOrderAcks> inOrderAcks = ThreadLocal.withInitial(InOrderAcks::new);
+
+    // type 헤더 → 역직렬화 대상과 처리 메서드. 등록되지 않은 type 은 역직렬화하지 않고 건너뛴다.
+    private final Map<String, Route<?>> routes = new HashMap<>();
+
+    public PolicyHandler() {
+        route("UserRegistered", UserRegistered.class, this::wheneverUserRegistered_GainRegisterPoint);
+        route("SubscriptionApplied", SubscriptionApplied.class, this::wheneverSubscriptionApplied_DecreasePoint);
+        route("PointBought", PointBought.class, this::wheneverPointBought_PurchasePoint);
+        route("PointRegistered", PointRegistered.class, this::wheneverPointRegistered_ChargePoint);
+        route("OutOfPoint", OutOfPoint.class, this::wheneverOutOfPoint_NotifyUser);
+    }
+
+    private <T extends AbstractEvent> void route(String type, Class<T> eventClass, Consumer<T> handler) {
+        routes.put(type, new Route<>(eventClass, handler));
+    }
+
+    // 소비 스레드는 트랜잭션(커넥션) 없이 스트라이프의 처리 결과를 기다린다.
+    // 수동 커밋(autoCommitOffset: false)이면 hot 계정 충전은 기다리지 않고 넘기며, ack 는 받은 순서대로 처리가 끝난 뒤 보낸다
     @StreamListener(KafkaProcessor.INPUT)
-    public void whatever(@Payload String eventString) {
-        // 이 리스너는 모든 이벤트를 받으므로, 특별한 로깅 없이 유지
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void wheneverEvent(Message<?> message) {
+        Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+        if (acknowledgment == null) {
+            process(message);
+            return;
+        }
+        InOrderAcks acks = inOrderAcks.get();
+        acks.add(handle(message, acks), acknowledgment);
+    }
+
+    // 처리되면 true, 실패하여 재시도/DLQ 로 넘겼거나 처리 대상이 아니면 false
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public boolean process(Message<?> message) {
+        return handle(message, null).join();
+    }
+
+    // acks 가 있으면 hot 계정 충전은 스트라이프에 넘기고 바로 돌아온다 (충전끼리는 순서가 상관없다).
+    // 그 밖의 이벤트는 앞서 넘긴 충전이 모두 끝난 뒤 처리한다 — 같은 사용자의 충전 → 차감 순서를 지킨다.
+    // 돌려주는 future 는 예외로 끝나지 않는다 (실패는 재시도/DLQ 로 넘기고 false)
+    private CompletableFuture<Boolean> handle(Message<?> message, InOrderAcks acks) {
+        String type = EventHeaders.type(message.getHeaders().get(EventHeaders.TYPE));
+        Route<?> route = type == null ? null : routes.get(type);
+        if (route == null) {
+            logger.debug("PolicyHandler: 처리 대상이 아닌 이벤트 - 건너뜀: type={}", type);
+            pointMetrics.eventUnrouted();
+            return CompletableFuture.completedFuture(false);
+        }
+        // type 태그는 라우팅 표에 등록된 값만 쓰인다
+        Timer.Sample sample = pointMetrics.start();
+        try {
+            AbstractEvent event = route.decode(type, message.getPayload(), message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+            String key = event.getMessageKey();
+            if (event instanceof PointBought) {
+                // hot 계정의 충전은 여러 스트라이프에 나눠 실행한다
+                String striped = hotAccounts.mutationKey(key);
+                if (acks != null && !striped.equals(key)) {
+                    acks.awaitBelow(maxInFlight);
+                    return pointMutationExecutor.submitBlocking(striped, () -> apply(route, type, event))
+                        .handle((done, error) -> error == null
+                            ? handled(type, sample)
+                            : failed(message, type, error instanceof CompletionException ? error.getCause() : error, sample));
+                }
+                key = striped;
+            }
+            if (acks != null) {
+                acks.awaitAll();
+            }
+            pointMutationExecutor.callBlocking(key, () -> apply(route, type, event));
+            return CompletableFuture.completedFuture(handled(type, sample));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(message, type, e, sample));
+        }
+    }
+
+    private Object apply(Route<?> route, String type, AbstractEvent event) {
+        return transactionTemplate.execute(status -> {
+            route.handle(event);
+            // 생성→반영 지연은 이 트랜잭션이 커밋된 뒤에 기록된다
+            eventLagTracker.record(type, event);
+            return null;
+        });
+    }
+
+    private boolean handled(String type, Timer.Sample sample) {
+        sample.stop(pointMetrics.eventHandled(type));
+        return true;
+    }
+
+    private boolean failed(Message<?> message, String type, Throwable error, Timer.Sample sample) {
+        RuntimeException e = error instanceof RuntimeException ? (RuntimeException) error : new IllegalStateException(error);
+        logger.error("PolicyHandler: {} 처리 중 오류 발생 (시도 {}): {}", type, EventRetryScheduler.attemptOf(message), e.getMessage(), e);
+        pointMetrics.eventFailed(type);
+        eventRetryScheduler.retryOrDeadLetter(message, type, e, this::process);
+        sample.stop(pointMetrics.eventHandled(type));
+        return false;
     }
 
-    @StreamListener(
-        value = KafkaProcessor.INPUT,
-        condition = "headers['type']=='UserRegistered'"
-    )
     public void wheneverUserRegistered_GainRegisterPoint(
-        @Payload UserRegistered userRegistered
+        UserRegistered userRegistered
     ) {
         logger.info("\n\n##### PolicyHandler: UserRegistered 이벤트 수신 - GainRegisterPoint 시작: {}\n\n", userRegistered);
 
@@ -54,74 +201,66 @@ public class PolicyHandler {
         logger.info("PolicyHandler: UserRegistered 이벤트 처리 완료 (자동 포인트 지급 로직 주석 처리됨).");
     }
 
-    @StreamListener(
-        value = KafkaProcessor.INPUT,
-        condition = "headers['type']=='SubscriptionApplied'"
-    )
     public void wheneverSubscriptionApplied_DecreasePoint(
-        @Payload SubscriptionApplied subscriptionApplied
+        SubscriptionApplied subscriptionApplied
     ) {
         logger.info("\n\n##### PolicyHandler: SubscriptionApplied 이벤트 수신 - DecreasePoint 시작: {}\n\n", subscriptionApplied);
-        try {
-            Point.decreasePoint(subscriptionApplied);
-            logger.info("PolicyHandler: SubscriptionApplied 이벤트 처리 완료.");
-        } catch (Exception e) {
-            logger.error("PolicyHandler: SubscriptionApplied 처리 중 오류 발생: {}", e.getMessage(), e);
-            // 예외를 던지면 Kafka가 재처리 시도할 수 있음. 필요에 따라 throw e;
+        String eventId = subscriptionApplied.getId() == null ? null : String.valueOf(subscriptionApplied.getId());
+        if (!eventDeduplicator.markProcessed("SubscriptionApplied", eventId)) {
+            logger.info("PolicyHandler: 이미 처리된 SubscriptionApplied 이벤트 - 건너뜀: id={}", eventId);
+            pointMetrics.eventDuplicate("SubscriptionApplied");
+            return;
         }
+        // 실패하면 예외가 그대로 올라가 트랜잭션이 롤백되고 재시도된다
+        Point.decreasePoint(subscriptionApplied);
+        logger.info("PolicyHandler: SubscriptionApplied 이벤트 처리 완료.");
     }
 
     /* ★ 추가: PointBought 수신 → purchasePoint 호출 */
-    @StreamListener(
-        value   = KafkaProcessor.INPUT,
-        condition = "headers['type']=='PointBought'"
-    )
     public void wheneverPointBought_PurchasePoint(
-        @Payload PointBought pointBought
+        PointBought pointBought
     ) {
         logger.info("\n\n##### PolicyHandler: PointBought 이벤트 수신 - PurchasePoint 시작: {}\n\n", pointBought);
-        try {
-            // 도메인 로직 호출
-            Point.purchasePoint(pointBought);
-            logger.info("PolicyHandler: PointBought 이벤트 처리 완료.");
-        } catch (Exception e) {
-            logger.error("PolicyHandler: PointBought 처리 중 오류 발생: {}", e.getMessage(), e);
-            // 예외를 던지면 Kafka가 재처리 시도할 수 있음. 필요에 따라 throw e;
+        if (!eventDeduplicator.markProcessed("PointBought", pointBought.getId())) {
+            logger.info("PolicyHandler: 이미 처리된 PointBought 이벤트 - 건너뜀: id={}", pointBought.getId());
+            pointMetrics.eventDuplicate("PointBought");
+            return;
         }
+        // 도메인 로직 호출 (실패하면 예외가 그대로 올라가 트랜잭션이 롤백되고 재시도된다)
+        Point.purchasePoint(pointBought);
+        logger.info("PolicyHandler: PointBought 이벤트 처리 완료.");
     }
 
-    @StreamListener(
-        value = KafkaProcessor.INPUT,
-        condition = "headers['type']=='PointRegistered'"
-    )
-    public void wheneverPointRegistered_ChargePoint(@Payload PointRegistered pointRegistered) {
+    public void wheneverPointRegistered_ChargePoint(PointRegistered pointRegistered) {
         logger.info("\n\n##### PolicyHandler: PointRegistered 이벤트 수신 - ChargePoint 시작: {}\n\n", pointRegistered);
 
-        pointRepository.findByUserId(new UserId(pointRegistered.getSubscriberInfo()))  // 필드명 맞게 수정 필요
-            .ifPresentOrElse(point -> {
-                // 포인트 충전
-                point.chargePoint(pointRegistered.getPointAmount());
-                pointRepository.save(point);
-                logger.info("PolicyHandler: 포인트 충전 완료 (PointRegistered 이벤트): ID={}, 최종포인트={}", point.getId(), point.getPoint());
-            }, () -> {
-                // 없으면 신규 생성 (필요시)
-                Point newPoint = new Point();
-                // UUID 생성하여 ID 설정 (기존 Point 엔티티 ID 생성 로직과 일관성을 위해 추가)
-                newPoint.setId(java.util.UUID.randomUUID().toString()); // ID 설정 로직 추가
-                newPoint.setUserId(new UserId(pointRegistered.getSubscriberInfo()));
-                newPoint.setPoint(pointRegistered.getPointAmount());
-                newPoint.setIsSubscribe(pointRegistered.isHasSubscription());
-                pointRepository.save(newPoint);
-                logger.info("PolicyHandler: 새 포인트 생성 완료 (PointRegistered 이벤트): ID={}, 초기포인트={}", newPoint.getId(), newPoint.getPoint());
-            });
+        if (!eventDeduplicator.markProcessed("PointRegistered", pointRegistered.getId())) {
+            logger.info("PolicyHandler: 이미 처리된 PointRegistered 이벤트 - 건너뜀: id={}", pointRegistered.getId());
+            pointMetrics.eventDuplicate("PointRegistered");
+            return;
+        }
+
+        if (pointRegistered.getPointAmount() < 0) {
+            logger.warn("PolicyHandler: 음수 포인트 지급 요청 무시: {}", pointRegistered);
+            return;
+        }
+        // 있으면 충전, 없으면 신규 생성을 한 문장으로 처리 (userId 유니크 인덱스로 중복 생성 방지)
+        UserId userId = new UserId(pointRegistered.getSubscriberInfo());
+        pointRepository.upsertPoint(
+            java.util.UUID.randomUUID().toString(),
+            userId.getValue(),
+            pointRegistered.getPointAmount(),
+            pointRegistered.isHasSubscription()
+        );
+        pointBalanceCache.invalidate(userId);
+        PointLedgerEntry.append(userId, pointRegistered.getPointAmount(), PointLedgerEntry.EntryType.SIGNUP_GRANT, pointRegistered.getId());
+        pointGrants.grant(userId, pointRegistered.getPointAmount(), PointLedgerEntry.EntryType.SIGNUP_GRANT, pointRegistered.getId());
+        pointProjection.applyRegistered(pointRegistered);
+        logger.info("PolicyHandler: 포인트 충전/생성 완료 (PointRegistered 이벤트): userId={}, 지급포인트={}", userId.getValue(), pointRegistered.getPointAmount());
         logger.info("PolicyHandler: PointRegistered 이벤트 처리 완료.");
     }
 
-    @StreamListener(
-        value = KafkaProcessor.INPUT,
-        condition = "headers['type']=='OutOfPoint'"
-    )
-    public void wheneverOutOfPoint_NotifyUser(@Payload OutOfPoint outOfPoint) {
+    public void wheneverOutOfPoint_NotifyUser(OutOfPoint outOfPoint) {
         logger.warn("\n\n##### PolicyHandler: OutOfPoint 이벤트 수신 - NotifyUser 시작: {}\n\n", outOfPoint); // WARN 레벨로 변경 (알림은 경고성)
 
         // TODO: 사용자에게 포인트 부족 알림을 보내거나, 로그 남기거나, 재충전 안내 처리 등
@@ -130,5 +269,28 @@ public class PolicyHandler {
 
         // 향후: 알림 서비스 호출, 이메일 전송 등 확장 가능
     }
+
+    private static final class Route<T extends AbstractEvent> {
+
+        private final Class<T> eventClass;
+        private final Consumer<T> handler;
+
+        Route(Class<T> eventClass, Consumer<T> handler) {
+            this.eventClass = eventClass;
+            this.handler = handler;
+        }
+
+        T decode(String type, Object payload, Object contentType) {
+            try {
+                return EventCodec.decode(payload, contentType, eventClass);
+            } catch (IOException e) {
+                throw new MessageConversionException(type + " 페이로드를 역직렬화할 수 없습니다: " + e.getMessage(), e);
+            }
+        }
+
+        void handle(AbstractEvent event) {
+            handler.accept(eventClass.cast(event));
+        }
+    }
 }
 //>>> Clean Arch / Inbound Adaptor
\ No newline at end of file
@@ -0,0 +1,25 @@
+package miniprojectjo.infra;
+
+import javax.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//<<< EDA / Idempotent Consumer
+// 이미 반영한 이벤트 id. 보존 기간이 지난 레코드는 EventDeduplicator 가 주기적으로 삭제한다.
+@Entity
+@Table(
+    name = "Processed_event_table",
+    indexes = @Index(name = "ix_processed_event_processed_at", columnList = "processedAt")
+)
+@Data
+@NoArgsConstructor
+public class ProcessedEvent {
+
+    @Id
+    private String eventId;
+
+    private String eventType;
+
+    private Long processedAt;
+}
+//>>> EDA / Idempotent Consumer
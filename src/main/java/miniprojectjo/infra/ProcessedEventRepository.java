@@ -0,0 +1,15 @@
+package miniprojectjo.infra;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource(exported = false)
+public interface ProcessedEventRepository
+    extends CrudRepository<ProcessedEvent, String> {
+    @Modifying
+    @Query("delete from ProcessedEvent event where event.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Long before);
+}
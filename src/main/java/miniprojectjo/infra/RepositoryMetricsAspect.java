@@ -0,0 +1,37 @@
+package miniprojectjo.infra;
+
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+//<<< Observability / Repository Metrics
+// PointRepository 의 모든 호출(상속한 save/findById 포함, Spring Data REST 경로 포함)을 메서드별 point.repository 타이머로 기록한다.
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final PointMetrics pointMetrics;
+
+    @Autowired
+    public RepositoryMetricsAspect(PointMetrics pointMetrics) {
+        this.pointMetrics = pointMetrics;
+    }
+
+    @Around("this(miniprojectjo.domain.PointRepository)")
+    public Object timePointRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = pointMetrics.start();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(pointMetrics.repositoryCall(joinPoint.getSignature().getName(), exception));
+        }
+    }
+}
+//>>> Observability / Repository Metrics
@@ -0,0 +1,146 @@
+package miniprojectjo.infra;
+
+//<<< Reconciliation / Primitive Map
+// userId → (기준 잔액, 이후 증감) 을 박싱 없이 담는 맵 (PointReconciliation).
+// 행 번호로 접근하는 열 배열 + userId → 행 번호 해시 (선형 탐사, 부하율 0.5 이하). 한 스레드에서 만들고, 다 만든 뒤에는 읽기만 한다.
+// 이벤트 로그의 앞 구간/뒤 구간을 따로 모은 두 맵을 merge 로 합칠 수 있다:
+// 뒤 구간에 기준 잔액(reset)이 있으면 앞 구간은 버리고, 없으면 증감을 더한다.
+final class UserDeltaMap {
+
+    static final int NONE = -1;
+
+    private static final byte HAS_BASE = 1;
+    private static final byte SEEN = 2;
+
+    private String[] userIds;
+    private long[] bases;
+    private long[] deltas;
+    private byte[] flags;
+    private int[] slots;
+    private int size;
+
+    UserDeltaMap(int capacity) {
+        int rows = Math.max(16, capacity);
+        userIds = new String[rows];
+        bases = new long[rows];
+        deltas = new long[rows];
+        flags = new byte[rows];
+        slots = new int[Integer.highestOneBit(rows - 1) << 2];
+    }
+
+    int size() {
+        return size;
+    }
+
+    String userId(int row) {
+        return userIds[row];
+    }
+
+    // 이벤트로 계산한 잔액
+    long expected(int row) {
+        return bases[row] + deltas[row];
+    }
+
+    // 증감 (PointRegistered, PointBought 등)
+    void add(String userId, long delta) {
+        // row() 가 배열을 키울 수 있으므로 행 번호를 먼저 구한다 (deltas[row(userId)] 는 키우기 전 배열에 쓴다)
+        int row = row(userId);
+        deltas[row] += delta;
+    }
+
+    // 이벤트가 알려 준 그 시점 잔액 (PointDecreased 등). 이전 증감은 이 값에 이미 들어 있다
+    void reset(String userId, long balance) {
+        int row = row(userId);
+        bases[row] = balance;
+        deltas[row] = 0;
+        flags[row] |= HAS_BASE;
+    }
+
+    // DB 에서 확인한 사용자 표시 (서로 다른 행만 쓰므로 여러 스레드에서 호출해도 된다)
+    void markSeen(int row) {
+        flags[row] |= SEEN;
+    }
+
+    boolean seen(int row) {
+        return (flags[row] & SEEN) != 0;
+    }
+
+    int find(String userId) {
+        int mask = slots.length - 1;
+        for (int slot = spread(userId.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (row < 0) {
+                return NONE;
+            }
+            if (userIds[row].equals(userId)) {
+                return row;
+            }
+        }
+    }
+
+    // earlier 다음에 later 가 온다고 보고 합친다. 큰 쪽에 작은 쪽을 넣고 그 맵을 돌려준다 (인자 둘 다 이후에 쓰지 않는다).
+    static UserDeltaMap merge(UserDeltaMap earlier, UserDeltaMap later) {
+        if (later.size >= earlier.size) {
+            for (int source = 0; source < earlier.size; source++) {
+                int target = later.row(earlier.userIds[source]);
+                if ((later.flags[target] & HAS_BASE) == 0) {
+                    later.bases[target] = earlier.bases[source];
+                    later.deltas[target] += earlier.deltas[source];
+                    later.flags[target] |= earlier.flags[source] & HAS_BASE;
+                }
+            }
+            return later;
+        }
+        for (int source = 0; source < later.size; source++) {
+            int target = earlier.row(later.userIds[source]);
+            if ((later.flags[source] & HAS_BASE) != 0) {
+                earlier.bases[target] = later.bases[source];
+                earlier.deltas[target] = later.deltas[source];
+                earlier.flags[target] |= HAS_BASE;
+            } else {
+                earlier.deltas[target] += later.deltas[source];
+            }
+        }
+        return earlier;
+    }
+
+    private int row(String userId) {
+        int found = find(userId);
+        if (found != NONE) {
+            return found;
+        }
+        if (size == userIds.length) {
+            grow();
+        }
+        int row = size++;
+        userIds[row] = userId;
+        index(userId, row);
+        return row;
+    }
+
+    private void grow() {
+        int rows = userIds.length * 2;
+        userIds = java.util.Arrays.copyOf(userIds, rows);
+        bases = java.util.Arrays.copyOf(bases, rows);
+        deltas = java.util.Arrays.copyOf(deltas, rows);
+        flags = java.util.Arrays.copyOf(flags, rows);
+        slots = new int[slots.length * 2];
+        for (int row = 0; row < size; row++) {
+            index(userIds[row], row);
+        }
+    }
+
+    private void index(String userId, int row) {
+        int mask = slots.length - 1;
+        int slot = spread(userId.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
+//>>> Reconciliation / Primitive Map
@@ -0,0 +1,81 @@
+package miniprojectjo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import miniprojectjo.domain.PointRepository;
+import miniprojectjo.domain.UserId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 한 계정에 64 스레드가 동시에 조건부 차감(decreasePointIfEnough)을 해도 갱신이 사라지지 않는지 확인한다
+@SpringBootTest
+class PointDeductConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+    private static final int INITIAL_POINT = 1000;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    PointRepository pointRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDeductionsLoseNoUpdates() throws Exception {
+        PointApplication.applicationContext = applicationContext;
+        String userId = "concurrency-" + System.nanoTime();
+        jdbcTemplate.update(
+            "insert into point_table (id, point, is_subscribe, user_id_value) values (?, ?, false, ?)",
+            userId, INITIAL_POINT, userId
+        );
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int succeeded = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        Integer updated = transactionTemplate.execute(status ->
+                            pointRepository.decreasePointIfEnough(new UserId(userId), 1)
+                        );
+                        succeeded += updated;
+                    }
+                    return succeeded;
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Integer> result : results) {
+                succeeded += result.get();
+            }
+
+            // 시도 1280 건 중 잔액만큼만 성공하고, 잔액은 정확히 0 이어야 한다
+            assertEquals(INITIAL_POINT, succeeded);
+            assertEquals(0, jdbcTemplate.queryForObject(
+                "select point from point_table where user_id_value = ?", Integer.class, userId
+            ));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
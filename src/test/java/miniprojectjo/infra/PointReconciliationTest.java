@@ -0,0 +1,181 @@
+package miniprojectjo.infra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import miniprojectjo.PointApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 이벤트 로그로 계산한 잔액과 DB 를 비교/보정하는 PointReconciliation 확인
+// - 여러 구간으로 나눠 읽어도 기준 잔액(PointDecreased)이 파일 순서대로 적용되는지
+// - 로그에 없는 사용자는 보정하지 않고, 줄이는 보정은 예약분을 남기며, 비교 이후 바뀐 잔액은 건드리지 않는지
+@SpringBootTest
+class PointReconciliationTest {
+
+    // 파일을 여러 구간으로 나누도록 (1MB 당 1구간) 채우는 사용자 수
+    private static final int FILLER_USERS = 50000;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    PointReconciliation pointReconciliation;
+
+    @Autowired
+    PointMutationExecutor pointMutationExecutor;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkpointsApplyInFileOrderAcrossRanges() throws Exception {
+        PointApplication.applicationContext = applicationContext;
+        String prefix = "rc-order-" + System.nanoTime() + "-";
+        String first = prefix + "first";
+        String middle = prefix + "middle";
+        String last = prefix + "last";
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < FILLER_USERS; i++) {
+            rows.add(new Object[] {filler(i), 1, filler(i)});
+        }
+        rows.add(new Object[] {first, 35, first});
+        rows.add(new Object[] {middle, 60, middle});
+        rows.add(new Object[] {last, 20, last});
+        jdbcTemplate.batchUpdate("insert into point_table (id, point, is_subscribe, user_id_value) values (?, ?, false, ?)", rows);
+
+        Path file = directory.resolve("order.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(bought(first, 100));
+            writer.write(decreased(middle, 50));
+            writer.write(bought(last, 10));
+            for (int i = 0; i < FILLER_USERS; i++) {
+                // 64바이트보다 짧은 줄이라 구간마다 맵이 처음 잡은 크기를 넘어 커진다
+                writer.write("{\"eventType\":\"PointBought\",\"userId\":\"" + filler(i) + "\",\"point\":1}\n");
+                if (i == FILLER_USERS / 2) {
+                    writer.write(decreased(first, 30));
+                }
+            }
+            writer.write(bought(first, 5));
+            writer.write(bought(middle, 7));
+            writer.write(decreased(last, 20));
+        }
+        assertTrue(Files.size(file) > 2 << 20, "구간이 둘 이상 나오도록 파일이 커야 한다");
+
+        PointReconciliation.Report report = pointReconciliation.run(file, false);
+
+        assertEquals(FILLER_USERS + 3, report.getLogUsers());
+        // first: 100 → 30(기준) → +5 = 35, last: 10 → 20(기준) = 20 은 일치, middle: 50(기준) + 7 = 57 ≠ 60
+        assertEquals(1, report.getDrifted(), report.getSamples().toString());
+        PointReconciliation.Drift drift = report.getSamples().get(0);
+        assertEquals(middle, drift.getUserId());
+        assertEquals(57, drift.getExpected());
+        assertEquals(60L, drift.getActual());
+        assertEquals(FILLER_USERS + 2, report.getMatched());
+    }
+
+    @Test
+    void correctionSkipsUnknownAndChangedUsersAndKeepsHeldPoints() throws Exception {
+        PointApplication.applicationContext = applicationContext;
+        String prefix = "rc-correct-" + System.nanoTime() + "-";
+        // 보정은 userId 순서로 실행된다: changed 가 먼저
+        String changed = prefix + "a-changed";
+        String held = prefix + "b-held";
+        String drifted = prefix + "c-drifted";
+        String unknown = prefix + "d-unknown";
+        insert(changed, 20, 0);
+        insert(held, 50, 40);
+        insert(drifted, 14, 0);
+        insert(unknown, 77, 0);
+
+        Path file = directory.resolve("correct.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(bought(changed, 10));
+            writer.write(bought(held, 30));
+            writer.write(bought(drifted, 10));
+        }
+
+        // changed 의 스트라이프를 막아 두고, 비교가 끝나 보정이 그 뒤에 줄을 선 다음 잔액을 바꾼다
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> concurrentWrite = pointMutationExecutor.submitBlocking(changed, () -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return jdbcTemplate.update("update point_table set point = 25 where user_id_value = ?", changed);
+        });
+        CompletableFuture<PointReconciliation.Report> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pointReconciliation.run(file, true);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (pointMutationExecutor.queued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        assertEquals(1, concurrentWrite.get(30, TimeUnit.SECONDS));
+        PointReconciliation.Report report = running.get(60, TimeUnit.SECONDS);
+
+        assertTrue(report.getMissingInLog() >= 1);
+        assertEquals(77, balanceOf(unknown));
+        // 비교할 때 20 이었지만 보정 전에 25 로 바뀌었다 → 건너뛴다
+        assertEquals(1, report.getChanged());
+        assertEquals(25, balanceOf(changed));
+        // 50 → 30 은 예약된 40 을 건드리므로 40 까지만 줄인다
+        assertEquals(1, report.getClamped());
+        assertEquals(40, balanceOf(held));
+        assertEquals(10, balanceOf(drifted));
+        assertEquals(2, report.getCorrected());
+        assertEquals(
+            1,
+            jdbcTemplate.queryForObject(
+                "select count(*) from point_ledger_table where user_id_value = ? and type = 'ADJUST' and delta = -10",
+                Integer.class,
+                held
+            )
+        );
+    }
+
+    private static String filler(int i) {
+        return "rco" + i;
+    }
+
+    private void insert(String userId, int point, int heldPoint) {
+        jdbcTemplate.update(
+            "insert into point_table (id, point, held_point, is_subscribe, user_id_value) values (?, ?, ?, false, ?)",
+            userId, point, heldPoint, userId
+        );
+    }
+
+    private int balanceOf(String userId) {
+        return jdbcTemplate.queryForObject("select point from point_table where user_id_value = ?", Integer.class, userId);
+    }
+
+    private static String bought(String userId, int point) {
+        return "{\"eventType\":\"PointBought\",\"userId\":{\"value\":\"" + userId + "\"},\"point\":" + point + "}\n";
+    }
+
+    private static String decreased(String userId, int point) {
+        return "{\"eventType\":\"PointDecreased\",\"userId\":{\"value\":\"" + userId + "\"},\"point\":" + point + "}\n";
+    }
+}